@@ -0,0 +1,72 @@
+package com.querydsl.benchmark;
+
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.entity.Member;
+import com.querydsl.repository.MemberCountCache;
+import com.querydsl.repository.MemberJpaRepository;
+import com.querydsl.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static com.querydsl.entity.QMember.member;
+
+/* 검색 경로별 비용 비교 */
+@State(Scope.Benchmark)
+public class MemberSearchBenchmark {
+
+    private final MemberSearchCondition condition = new MemberSearchCondition(null, "teamB", 20, 40);
+    private final Pageable pageable = PageRequest.of(1, 20);
+
+    private MemberJpaRepository memberJpaRepository;
+    private MemberRepository memberRepository;
+    private MemberCountCache countCache;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededContext context) {
+        memberJpaRepository = context.bean(MemberJpaRepository.class);
+        memberRepository = context.bean(MemberRepository.class);
+        countCache = context.bean(MemberCountCache.class);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByWhereParameter() {
+        return memberJpaRepository.searchByWhereParameter(condition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, pageable);
+    }
+
+    /* 같은 조건으로 페이지를 넘기는 상황 (count 캐시 적중) */
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageable);
+    }
+
+    /* 매번 새로운 조건으로 검색하는 상황 (count 쿼리 실행) */
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplexCountMiss() {
+        countCache.invalidateAll();
+        return memberRepository.searchPageComplex(condition, pageable);
+    }
+
+    @Benchmark
+    public Iterable<Member> predicateExecutorFindAll() {
+        return memberRepository.findAll(member.age.between(20, 40).and(member.username.eq("member10")));
+    }
+}
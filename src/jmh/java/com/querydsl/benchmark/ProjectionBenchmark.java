@@ -0,0 +1,67 @@
+package com.querydsl.benchmark;
+
+import com.querydsl.dto.MemberDto;
+import com.querydsl.dto.QMemberDto;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+import static com.querydsl.core.types.Projections.bean;
+import static com.querydsl.core.types.Projections.constructor;
+import static com.querydsl.core.types.Projections.fields;
+import static com.querydsl.entity.QMember.member;
+
+/* DTO 프로젝션 방식별 비용 비교 (같은 1,000 건을 조회) */
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private JPAQueryFactory queryFactory;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededContext context) {
+        queryFactory = context.bean(JPAQueryFactory.class);
+    }
+
+    @Benchmark
+    public List<MemberDto> constructorProjection() {
+        return queryFactory
+                .select(constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fieldsProjection() {
+        return queryFactory
+                .select(fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> beanProjection() {
+        return queryFactory
+                .select(bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection() {
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+}
@@ -0,0 +1,56 @@
+package com.querydsl.benchmark;
+
+import com.querydsl.QuerydslApplication;
+import com.querydsl.seed.MemberDataGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/*
+    벤치마크용 스프링 컨텍스트
+    : 내장 H2(MySQL 모드)에 members 건수만큼 데이터를 만든 뒤 실제 빈(repository)을 그대로 측정한다.
+ */
+@State(Scope.Benchmark)
+public class SeededContext {
+
+    @Param({"1000", "100000"})
+    public int members;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.profiles.active=bench",
+                        "--spring.datasource.url=jdbc:h2:mem:bench" + members + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--logging.level.org.hibernate.type=warn",
+                        "--seed.teams=" + Math.max(2, members / 100),
+                        "--seed.members=" + members,
+                        "--seed.team-distribution=UNIFORM",
+                        "--seed.age-distribution=UNIFORM"
+                );
+        context.getBean(MemberDataGenerator.class).generate();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
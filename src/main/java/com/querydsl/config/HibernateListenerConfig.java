@@ -0,0 +1,53 @@
+package com.querydsl.config;
+
+import com.querydsl.repository.MemberCountCacheInvalidator;
+import com.querydsl.repository.TeamAgeStatistics;
+import com.querydsl.repository.TeamNameDictionary;
+import com.querydsl.repository.UsernameTrigramIndex;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/* 엔티티 변경을 감지해야 하는 컴포넌트들을 Hibernate 이벤트 리스너로 등록한다. */
+@Configuration
+@RequiredArgsConstructor
+public class HibernateListenerConfig {
+
+    private final EntityManagerFactory emf;
+    private final MemberCountCacheInvalidator memberCountCacheInvalidator;
+    private final TeamNameDictionary teamNameDictionary;
+    private final UsernameTrigramIndex usernameTrigramIndex;
+    private final TeamAgeStatistics teamAgeStatistics;
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, memberCountCacheInvalidator);
+        registry.appendListeners(EventType.POST_UPDATE, memberCountCacheInvalidator);
+        registry.appendListeners(EventType.POST_DELETE, memberCountCacheInvalidator);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, memberCountCacheInvalidator);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, memberCountCacheInvalidator);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, memberCountCacheInvalidator);
+
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, teamNameDictionary);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, teamNameDictionary);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, teamNameDictionary);
+
+        registry.appendListeners(EventType.POST_INSERT, usernameTrigramIndex.immediateInsertListener());
+        registry.appendListeners(EventType.POST_UPDATE, usernameTrigramIndex.immediateUpdateListener());
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, usernameTrigramIndex.afterCommitUpdateListener());
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, usernameTrigramIndex.afterCommitDeleteListener());
+
+        registry.appendListeners(EventType.POST_INSERT, teamAgeStatistics);
+        registry.appendListeners(EventType.POST_UPDATE, teamAgeStatistics);
+        registry.appendListeners(EventType.POST_DELETE, teamAgeStatistics);
+    }
+}
@@ -0,0 +1,39 @@
+package com.querydsl.config;
+
+import com.querydsl.metrics.JdbcTimingSessionListener;
+import com.querydsl.metrics.MetricsStatementInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+/* repository 쿼리 지표(RepositoryMetricsAspect)를 위해 SQL 실행을 가로채는 Hibernate 설정 */
+@Configuration
+public class HibernateMetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer metricsHibernatePropertiesCustomizer() {
+        return properties -> {
+            /* 이미 설정된 inspector 가 있으면 덮어쓰지 않고 뒤에 이어서 호출한다. */
+            StatementInspector configured = statementInspector(properties.get(AvailableSettings.STATEMENT_INSPECTOR));
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new MetricsStatementInspector(configured));
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimingSessionListener.class.getName());
+        };
+    }
+
+    private static StatementInspector statementInspector(Object setting) {
+        if (setting == null) {
+            return null;
+        }
+        if (setting instanceof StatementInspector) {
+            return (StatementInspector) setting;
+        }
+        Class<?> type = setting instanceof Class
+                ? (Class<?>) setting
+                : ClassUtils.resolveClassName(setting.toString(), HibernateMetricsConfig.class.getClassLoader());
+        return (StatementInspector) BeanUtils.instantiateClass(type);
+    }
+}
@@ -0,0 +1,142 @@
+package com.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    읽기 전용 트랜잭션(@Transactional(readOnly = true))은 replica 로, 나머지는 primary 로 보내는 DataSource
+    : JPA 는 트랜잭션을 시작하면서 커넥션을 먼저 가져가므로 반드시 LazyConnectionDataSourceProxy 로 감싸서
+      첫 SQL 을 실행하는 시점(= readOnly 여부가 정해진 뒤)에 커넥션을 고르게 한다.
+
+    - replica 는 주기적으로 지연(lag)을 확인해서 maxLag 를 넘거나 연결이 안 되면 후보에서 뺀다.
+    - 후보가 하나도 없으면 primary 에서 읽는다.
+    - replica 는 비동기 복제이므로 방금 쓴 데이터를 바로 읽어야 하는 곳은 쓰기 트랜잭션 안에서 읽어야 한다.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final ReplicaRoutingProperties properties;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> available;
+    private ScheduledExecutorService lagChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaRoutingProperties properties) {
+        this.primary = primary;
+        this.properties = properties;
+        this.replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.put("replica-" + i, replicas.get(i));
+        }
+        this.available = new ArrayList<>(this.replicas.keySet());
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        List<String> candidates = available;
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+        if (properties.getLoadBalance() == ReplicaRoutingProperties.LoadBalance.RANDOM) {
+            return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicas();
+
+        long interval = properties.getLagCheckInterval().toMillis();
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /* 직접 만든 커넥션 풀(primary, replica)도 함께 닫는다. */
+    public void destroy() throws Exception {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        for (DataSource replica : replicas.values()) {
+            close(replica);
+        }
+        close(primary);
+    }
+
+    private static void close(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+
+    /* 지연이 maxLag 이하인 replica 만 읽기 후보로 남긴다. */
+    public void checkReplicas() {
+        List<String> checked = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            long lagSeconds = lagSeconds(replica.getKey(), replica.getValue());
+            if (lagSeconds >= 0 && lagSeconds <= properties.getMaxLag().getSeconds()) {
+                checked.add(replica.getKey());
+            } else if (available.contains(replica.getKey())) {
+                log.warn("replica 제외 name={} lagSeconds={}", replica.getKey(), lagSeconds);
+            }
+        }
+        if (!checked.equals(available)) {
+            log.info("읽기 replica 후보 {}", checked);
+        }
+        available = checked;
+    }
+
+    public List<String> availableReplicas() {
+        return available;
+    }
+
+    /* 연결할 수 없으면 -1 */
+    private long lagSeconds(String name, DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (!StringUtils.hasText(properties.getLagQuery())) {
+                return connection.isValid(1) ? 0 : -1;
+            }
+            try (ResultSet rs = statement.executeQuery(properties.getLagQuery())) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
+        } catch (SQLException e) {
+            log.warn("replica 상태 확인 실패 name={}", name, e);
+            return -1;
+        }
+    }
+}
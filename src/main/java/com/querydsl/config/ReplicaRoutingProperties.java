@@ -0,0 +1,43 @@
+package com.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/* 읽기 전용 트랜잭션을 replica 로 보내는 라우팅 설정 (member.datasource.routing.*) */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+    private LoadBalance loadBalance = LoadBalance.ROUND_ROBIN;
+
+    /* 이보다 많이 뒤처진 replica 는 lag 가 줄어들 때까지 제외하고, 모두 제외되면 primary 에서 읽는다. */
+    private Duration maxLag = Duration.ofSeconds(10);
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+    /*
+        replica 에서 실행해서 지연 시간(초)을 돌려주는 쿼리 (ex. pt-heartbeat 테이블 조회)
+        비어 있으면 연결만 확인하고 지연은 0 으로 본다.
+     */
+    private String lagQuery;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    public enum LoadBalance {
+        ROUND_ROBIN, RANDOM
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,39 @@
+package com.querydsl.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.dto.MemberField;
+import com.querydsl.metrics.StatementBudgetInterceptor;
+import com.querydsl.web.MemberPageHttpMessageConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final StatementBudgetInterceptor statementBudgetInterceptor;
+    private final ObjectMapper objectMapper;
+
+    /* fields=memberId,username 처럼 MemberTeamDto 의 필드 이름으로 받는다. */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, MemberField.class, MemberField::fromPath);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(statementBudgetInterceptor);
+    }
+
+    /* 맨 뒤에 추가해서 Accept 가 없거나 application/json 이면 지금처럼 Jackson 이 응답을 쓰게 한다. */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MemberPageHttpMessageConverter(objectMapper));
+    }
+}
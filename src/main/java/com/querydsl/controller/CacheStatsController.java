@@ -0,0 +1,49 @@
+package com.querydsl.controller;
+
+import com.querydsl.dto.CacheRegionStatsDto;
+import com.querydsl.entity.Team;
+import com.querydsl.repository.TeamRepository;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Hibernate 2차 캐시 / 쿼리 캐시 영역별 통계 (member.hibernate.statistics 를 켜야 쌓인다.) */
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+    private final EntityManagerFactory emf;
+
+    @GetMapping("/cache/stats")
+    public List<CacheRegionStatsDto> cacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        List<CacheRegionStatsDto> result = new ArrayList<>();
+        add(result, Team.class.getName(), statistics.getDomainDataRegionStatistics(Team.class.getName()));
+        add(result, TeamRepository.TEAM_BY_NAME_REGION,
+                statistics.getQueryRegionStatistics(TeamRepository.TEAM_BY_NAME_REGION));
+        return result;
+    }
+
+    private static void add(List<CacheRegionStatsDto> result, String region, CacheRegionStatistics stats) {
+        /* 쿼리 캐시 영역은 처음 사용되기 전까지 통계가 없다. */
+        if (stats == null) {
+            result.add(new CacheRegionStatsDto(region, 0, 0, 0, 0));
+            return;
+        }
+        result.add(new CacheRegionStatsDto(
+                region,
+                stats.getHitCount(),
+                stats.getMissCount(),
+                stats.getPutCount(),
+                stats.getElementCountInMemory()
+        ));
+    }
+}
@@ -1,45 +1,26 @@
 package com.querydsl.controller;
 
-import com.querydsl.entity.Member;
-import com.querydsl.entity.Team;
+import com.querydsl.seed.MemberDataGenerator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import javax.annotation.PostConstruct;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 
+/*
+    local 환경 초기 데이터 (데이터 양과 분포는 seed.* 설정으로 조절)
+    ex) --seed.teams=2000 --seed.members=10000000 --seed.threads=8
+    Hibernate 이벤트 리스너 등록까지 끝난 뒤에 실행되도록 ApplicationReadyEvent 에서 생성한다.
+ */
 @Profile("local")
 @Component
 @RequiredArgsConstructor
 public class InitMember {
 
-    private final InitMemberService initMemberService;
+    private final MemberDataGenerator memberDataGenerator;
 
-    @PostConstruct
+    @EventListener(ApplicationReadyEvent.class)
     public void init() {
-        initMemberService.init();
-    }
-
-    @Service
-    static class InitMemberService {
-        @PersistenceContext
-        private EntityManager em;
-
-        @Transactional
-        public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
-            }
-        }
+        memberDataGenerator.generate();
     }
 }
@@ -1,16 +1,37 @@
 package com.querydsl.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.querydsl.dto.CursorSlice;
 import com.querydsl.dto.MemberSearchCondition;
 import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.metrics.StatementBudget;
+import com.querydsl.repository.CountStrategy;
+import com.querydsl.repository.InvalidSearchRequestException;
 import com.querydsl.repository.MemberJpaRepository;
 import com.querydsl.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,19 +39,85 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
 
+    /*
+        모든 검색 API 는 fields=memberId,username,age,teamId,teamName 로 조회할 필드를 고를 수 있다. (기본은 전체)
+        teamName 을 고르지 않으면 team 조인 없이 member 테이블만 읽는다.
+     */
     @GetMapping("/v1/members")
+    @StatementBudget(1)
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberJpaRepository.searchByWhereParameter(condition);
     }
 
+    /*
+        여러 검색을 한 번의 요청 / 트랜잭션으로, 조건 모양별 SQL 한 번씩(최대 member.search.batch.max-statements) 실행한다.
+        ex) {"teamA": {"teamName": "teamA"}, "adults": {"ageGoe": 20}} → {"teamA": [...], "adults": [...]}
+        SQL 수 제한도 같은 max-statements 설정을 쓴다.
+     */
+    @PostMapping("/v1/members/batch-search")
+    @StatementBudget(property = "member.search.batch.max-statements")
+    public Map<String, List<MemberTeamDto>> batchSearchMemberV1(
+            @RequestBody LinkedHashMap<String, MemberSearchCondition> searches) {
+        return memberRepository.searchBatch(searches);
+    }
+
+    /* 검색 결과를 한 줄에 한 건씩(NDJSON) 바로 응답으로 흘려보낸다. */
+    @GetMapping(value = "/v1/members/export", produces = "application/x-ndjson")
+    @StatementBudget(1)
+    public void exportMemberV1(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+
+        ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        ServletOutputStream out = response.getOutputStream();
+
+        memberRepository.streamByCondition(condition, dto -> {
+            try {
+                writer.writeValue(out, dto);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
     @GetMapping("/v2/members")
+    @StatementBudget(2)
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
         return memberRepository.searchPageSimple(condition, pageable);
     }
 
+    /*
+        count=EXACT(기본) | ESTIMATED | NONE
+        ESTIMATED 는 totalExact 를 함께 응답한다. false 면 totalElements / totalPages 는 "최소 이만큼" 인 하한값이다.
+     */
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+    @StatementBudget(2)
+    public Slice<MemberTeamDto> searchMemberV3(
+            MemberSearchCondition condition,
+            Pageable pageable,
+            @RequestParam(defaultValue = "EXACT") CountStrategy count) {
+        return memberRepository.searchPage(condition, pageable, count);
+    }
+
+    @GetMapping("/v4/members")
+    @StatementBudget(1)
+    public CursorSlice<MemberTeamDto> searchMemberV4(
+            MemberSearchCondition condition,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return memberRepository.searchByCursor(condition, cursor, size);
+    }
+
+    /* 잘못된 cursor / size 등 클라이언트 입력만 400 으로 응답한다. 그 외 예외는 그대로 서버 오류로 둔다. */
+    @ExceptionHandler(InvalidSearchRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(InvalidSearchRequestException e) {
+        return e.getMessage();
     }
 }
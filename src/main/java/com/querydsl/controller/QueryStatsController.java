@@ -0,0 +1,63 @@
+package com.querydsl.controller;
+
+import com.querydsl.dto.QueryStatsDto;
+import com.querydsl.metrics.RepositoryMetricsAspect;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* repository 메서드 / 검색 조건 모양별 쿼리 지표 (총 소요 시간이 큰 순서) */
+@RestController
+@RequiredArgsConstructor
+public class QueryStatsController {
+
+    private final MeterRegistry registry;
+
+    @GetMapping("/query/stats")
+    public List<QueryStatsDto> queryStats() {
+        List<QueryStatsDto> result = new ArrayList<>();
+        for (Timer timer : registry.find(RepositoryMetricsAspect.QUERY_TIMER).timers()) {
+            String method = timer.getId().getTag("method");
+            String shape = timer.getId().getTag("shape");
+
+            DistributionSummary statements = registry.find(RepositoryMetricsAspect.STATEMENTS)
+                    .tag("method", method).tag("shape", shape).summary();
+            DistributionSummary rows = registry.find(RepositoryMetricsAspect.ROWS)
+                    .tag("method", method).tag("shape", shape).summary();
+            Timer jdbc = registry.find(RepositoryMetricsAspect.JDBC_TIMER)
+                    .tag("method", method).tag("shape", shape).timer();
+
+            result.add(new QueryStatsDto(
+                    method,
+                    shape,
+                    timer.count(),
+                    timer.mean(TimeUnit.MILLISECONDS),
+                    p95(timer),
+                    timer.max(TimeUnit.MILLISECONDS),
+                    statements != null ? statements.mean() : 0,
+                    rows != null ? rows.mean() : 0,
+                    jdbc != null ? jdbc.totalTime(TimeUnit.MILLISECONDS) : 0
+            ));
+        }
+        result.sort(Comparator.comparingDouble((QueryStatsDto stats) -> stats.getMeanMillis() * stats.getCount()).reversed());
+        return result;
+    }
+
+    private static double p95(Timer timer) {
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                return percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+}
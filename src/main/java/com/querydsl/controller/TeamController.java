@@ -0,0 +1,34 @@
+package com.querydsl.controller;
+
+import com.querydsl.dto.TeamAgeStatsDto;
+import com.querydsl.dto.TeamMembersDto;
+import com.querydsl.metrics.StatementBudget;
+import com.querydsl.repository.TeamAgeStatistics;
+import com.querydsl.repository.TeamRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+    private final TeamAgeStatistics teamAgeStatistics;
+
+    @GetMapping("/v1/teams")
+    @StatementBudget(3)
+    public Page<TeamMembersDto> searchTeamsV1(Pageable pageable) {
+        return teamRepository.searchTeamsWithMembers(pageable);
+    }
+
+    /* 메모리의 요약만 읽으므로 SQL 을 실행하지 않는다. */
+    @GetMapping("/v1/teams/stats")
+    public List<TeamAgeStatsDto> teamStatsV1() {
+        return teamAgeStatistics.stats();
+    }
+}
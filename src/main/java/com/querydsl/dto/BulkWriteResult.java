@@ -0,0 +1,25 @@
+package com.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BulkWriteResult {
+    private long inserted;
+    private long updated;
+    private List<BatchTiming> batches;
+
+    public long getTotal() {
+        return inserted + updated;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BatchTiming {
+        private int rows;
+        private long elapsedMillis;
+    }
+}
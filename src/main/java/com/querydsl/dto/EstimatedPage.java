@@ -0,0 +1,25 @@
+package com.querydsl.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/*
+    count=ESTIMATED 로 조회한 페이지
+    : totalExact 가 false 면 세는 개수 제한에 걸린 것이므로 totalElements / totalPages 는 "최소 이만큼" 인 하한값이다.
+      (hasNext 는 하한값으로도 정확하다.)
+ */
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    public EstimatedPage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+}
@@ -0,0 +1,61 @@
+package com.querydsl.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.Collection;
+
+/*
+    member 검색 결과(MemberTeamDto)에서 조회할 필드 (fields=memberId,username)
+    : 요청하지 않은 필드는 조회하지 않고 null 로 둔다.
+      memberId 는 정렬 / 커서에 필요하므로 항상 조회한다.
+ */
+public enum MemberField {
+    MEMBER_ID("memberId"),
+    USERNAME("username"),
+    AGE("age"),
+    TEAM_ID("teamId"),
+    TEAM_NAME("teamName");
+
+    public static final int ALL = (1 << values().length) - 1;
+
+    private final String path;
+
+    MemberField(String path) {
+        this.path = path;
+    }
+
+    @JsonValue
+    public String getPath() {
+        return path;
+    }
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public boolean in(int fields) {
+        return (fields & mask()) != 0;
+    }
+
+    /* 비어 있으면 전체 필드 */
+    public static int mask(Collection<MemberField> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return ALL;
+        }
+        int mask = MEMBER_ID.mask();
+        for (MemberField field : fields) {
+            mask |= field.mask();
+        }
+        return mask;
+    }
+
+    @JsonCreator
+    public static MemberField fromPath(String path) {
+        for (MemberField field : values()) {
+            if (field.path.equals(path) || field.name().equalsIgnoreCase(path)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("지원하지 않는 필드입니다: " + path);
+    }
+}
@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.Set;
+
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -14,4 +16,20 @@ public class MemberSearchCondition {
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+    private UsernameMatch usernameMatch = UsernameMatch.EXACT;
+    /* 조회할 필드 (비어 있으면 전체) */
+    private Set<MemberField> fields;
+
+    public MemberSearchCondition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        this(username, teamName, ageGoe, ageLoe, UsernameMatch.EXACT);
+    }
+
+    public MemberSearchCondition(String username, String teamName, Integer ageGoe, Integer ageLoe,
+                                 UsernameMatch usernameMatch) {
+        this(username, teamName, ageGoe, ageLoe, usernameMatch, null);
+    }
+
+    public UsernameMatch getUsernameMatch() {
+        return usernameMatch != null ? usernameMatch : UsernameMatch.EXACT;
+    }
 }
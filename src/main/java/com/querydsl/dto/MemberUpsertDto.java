@@ -0,0 +1,16 @@
+package com.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberUpsertDto {
+    private String username;
+    private int age;
+    private String teamName;
+}
@@ -0,0 +1,18 @@
+package com.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class QueryStatsDto {
+    private String method;
+    private String shape;
+    private long count;
+    private double meanMillis;
+    private double p95Millis;
+    private double maxMillis;
+    private double statementsPerCall;
+    private double rowsPerCall;
+    private double jdbcMillis;
+}
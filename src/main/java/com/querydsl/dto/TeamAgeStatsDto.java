@@ -0,0 +1,16 @@
+package com.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TeamAgeStatsDto {
+    private Long teamId;
+    private String teamName;
+    private long count;
+    private int minAge;
+    private int maxAge;
+    private long sumAge;
+    private double avgAge;
+}
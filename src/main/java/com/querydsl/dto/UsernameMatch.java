@@ -0,0 +1,11 @@
+package com.querydsl.dto;
+
+/* username 검색 방식 */
+public enum UsernameMatch {
+    /* username = ? */
+    EXACT,
+    /* username like '?%' (username 인덱스 사용) */
+    PREFIX,
+    /* username like '%?%' (UsernameTrigramIndex 로 후보 id 를 먼저 좁힌다) */
+    CONTAINS
+}
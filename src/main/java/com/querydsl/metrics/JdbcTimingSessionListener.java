@@ -0,0 +1,41 @@
+package com.querydsl.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/*
+    세션마다 Hibernate 가 생성하는 리스너 (hibernate.session.events.auto)
+    : JDBC statement / batch 실행 시간을 현재 기록 중인 repository 호출에 더한다.
+ */
+public class JdbcTimingSessionListener extends BaseSessionEventListener {
+
+    private long executeStart = -1;
+    private long batchStart = -1;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executeStart = record(executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        batchStart = record(batchStart);
+    }
+
+    private static long record(long start) {
+        QueryInvocation invocation = QueryInvocation.current();
+        if (start >= 0 && invocation != null) {
+            invocation.jdbcTime(System.nanoTime() - start);
+        }
+        return -1;
+    }
+}
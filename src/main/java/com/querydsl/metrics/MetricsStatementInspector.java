@@ -0,0 +1,30 @@
+package com.querydsl.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+    Hibernate 가 SQL 을 준비할 때마다 호출된다. (hibernate.session_factory.statement_inspector)
+    : 현재 기록 중인 repository 호출과 요청별 카운터(StatementCounter)에 SQL 을 더하고,
+      원래 설정되어 있던 inspector 가 있으면 이어서 호출한다.
+ */
+public class MetricsStatementInspector implements StatementInspector {
+
+    private final StatementInspector delegate;
+
+    public MetricsStatementInspector(StatementInspector delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryInvocation invocation = QueryInvocation.current();
+        if (invocation != null) {
+            invocation.statement(sql);
+        }
+        StatementCounter counter = StatementCounter.current();
+        if (counter != null) {
+            counter.statement(sql);
+        }
+        return delegate != null ? delegate.inspect(sql) : sql;
+    }
+}
@@ -0,0 +1,64 @@
+package com.querydsl.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+    repository 메서드 한 번의 호출 동안 실행된 SQL 수 / JDBC 실행 시간을 모으는 객체
+    : 현재 스레드에 묶어두고, StatementInspector 와 SessionEventListener 가 여기에 기록한다.
+      repository 메서드 안에서 다른 repository 메서드를 부르면 바깥 호출에 합쳐서 기록한다.
+ */
+public class QueryInvocation {
+
+    private static final ThreadLocal<QueryInvocation> CURRENT = new ThreadLocal<>();
+    private static final int MAX_SQL_SAMPLES = 5;
+
+    private long statements;
+    private long jdbcNanos;
+    private final List<String> sqlSamples = new ArrayList<>();
+
+    /* 이미 기록 중인 호출이 있으면 null */
+    public static QueryInvocation start() {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+        QueryInvocation invocation = new QueryInvocation();
+        CURRENT.set(invocation);
+        return invocation;
+    }
+
+    public static QueryInvocation current() {
+        return CURRENT.get();
+    }
+
+    public void end() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    void statement(String sql) {
+        statements++;
+        if (sqlSamples.size() < MAX_SQL_SAMPLES && !sqlSamples.contains(sql)) {
+            sqlSamples.add(sql);
+        }
+    }
+
+    void jdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    /* 서로 다른 SQL 최대 MAX_SQL_SAMPLES 개 (slow query 로그용) */
+    public List<String> getSqlSamples() {
+        return Collections.unmodifiableList(sqlSamples);
+    }
+}
@@ -0,0 +1,149 @@
+package com.querydsl.metrics;
+
+import com.querydsl.dto.CursorSlice;
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.dto.UsernameMatch;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/*
+    회원 repository 메서드별 / 검색 조건 모양(shape)별 쿼리 지표
+    : 응답 시간(histogram), 실행한 SQL 수, 반환한 row 수, JDBC 실행 시간을 Micrometer 로 기록하고
+      (/actuator/metrics, /query/stats) 기준 시간을 넘은 호출은 slow query 로그로 남긴다.
+ */
+@Slf4j
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    public static final String QUERY_TIMER = "member.repository.query";
+    public static final String STATEMENTS = "member.repository.statements";
+    public static final String ROWS = "member.repository.rows";
+    public static final String JDBC_TIMER = "member.repository.jdbc";
+
+    private final MeterRegistry registry;
+    private final Duration slowQueryThreshold;
+
+    public RepositoryMetricsAspect(
+            MeterRegistry registry,
+            @Value("${member.metrics.slow-query-threshold:500ms}") Duration slowQueryThreshold) {
+        this.registry = registry;
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    @Around("execution(* com.querydsl.repository.MemberRepositoryCustom.*(..))"
+            + " || execution(public * com.querydsl.repository.MemberJpaRepository.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryInvocation invocation = QueryInvocation.start();
+        if (invocation == null) {
+            return joinPoint.proceed();
+        }
+
+        long start = System.nanoTime();
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } finally {
+            invocation.end();
+            long elapsed = System.nanoTime() - start;
+            String method = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                    + "." + joinPoint.getSignature().getName();
+            record(method, shapeOf(joinPoint.getArgs()), elapsed, invocation, rowsOf(result));
+        }
+    }
+
+    private void record(String method, String shape, long elapsedNanos, QueryInvocation invocation, long rows) {
+        Tags tags = Tags.of("method", method, "shape", shape);
+
+        Timer.builder(QUERY_TIMER)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(STATEMENTS)
+                .tags(tags)
+                .register(registry)
+                .record(invocation.getStatements());
+        Timer.builder(JDBC_TIMER)
+                .tags(tags)
+                .register(registry)
+                .record(invocation.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            DistributionSummary.builder(ROWS)
+                    .tags(tags)
+                    .register(registry)
+                    .record(rows);
+        }
+
+        if (elapsedNanos >= slowQueryThreshold.toNanos()) {
+            log.warn("slow-query method={} shape={} elapsedMs={} jdbcMs={} statements={} rows={} sql={}",
+                    method, shape,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    TimeUnit.NANOSECONDS.toMillis(invocation.getJdbcNanos()),
+                    invocation.getStatements(), rows,
+                    invocation.getSqlSamples());
+        }
+    }
+
+    /* 검색 조건 중 값이 있는 항목 이름을 + 로 이어붙인다. (ex. username+ageGoe) 검색 조건이 없는 메서드는 "-" */
+    static String shapeOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition) {
+                MemberSearchCondition condition = (MemberSearchCondition) arg;
+                StringJoiner shape = new StringJoiner("+");
+                if (StringUtils.hasText(condition.getUsername())) shape.add(usernameShape(condition.getUsernameMatch()));
+                if (StringUtils.hasText(condition.getTeamName())) shape.add("teamName");
+                if (condition.getAgeGoe() != null) shape.add("ageGoe");
+                if (condition.getAgeLoe() != null) shape.add("ageLoe");
+                return shape.length() == 0 ? "none" : shape.toString();
+            }
+        }
+        return "-";
+    }
+
+    private static String usernameShape(UsernameMatch match) {
+        switch (match) {
+            case PREFIX:
+                return "usernamePrefix";
+            case CONTAINS:
+                return "usernameContains";
+            default:
+                return "username";
+        }
+    }
+
+    /* 결과가 목록이 아니면 (count, void 등) -1 */
+    private static long rowsOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof CursorSlice) {
+            return ((CursorSlice<?>) result).getContent().size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).values().stream().mapToLong(RepositoryMetricsAspect::rowsOf).sum();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,16 @@
+package com.querydsl.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/* 컨트롤러 메서드가 요청 하나에서 실행해도 되는 최대 SQL 수 (member.statement-budget.endpoints 설정이 우선) */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+    int value() default 0;
+
+    /* 설정값을 제한으로 쓸 때의 key (ex. member.search.batch.max-statements). 지정하면 value 대신 쓴다. */
+    String property() default "";
+}
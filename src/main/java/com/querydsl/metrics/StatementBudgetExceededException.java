@@ -0,0 +1,9 @@
+package com.querydsl.metrics;
+
+/* 요청 하나에서 허용된 SQL 수(StatementBudget)를 넘었을 때 (mode=FAIL) */
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,62 @@
+package com.querydsl.metrics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/*
+    요청마다 실행된 SQL 수를 세고 엔드포인트별 제한(budget)과 비교한다.
+    : open-in-view 로 응답을 만드는 중에 실행되는 지연 로딩 SQL 까지 세기 위해 afterCompletion 에서 판단한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatementBudgetInterceptor implements HandlerInterceptor {
+
+    private final StatementBudgetProperties properties;
+    private final Environment environment;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            String endpoint = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+            StatementCounter.start(endpoint, budget(endpoint, handlerMethod),
+                    properties.getMode() == StatementBudgetProperties.Mode.FAIL);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        StatementCounter counter = StatementCounter.current();
+        if (counter == null) {
+            return;
+        }
+        counter.end();
+        if (counter.isOverBudget()) {
+            log.warn("statement-budget-exceeded uri={} {}", request.getRequestURI(), counter.report());
+        }
+    }
+
+    private int budget(String endpoint, HandlerMethod handlerMethod) {
+        Integer configured = properties.getEndpoints().get(endpoint);
+        if (configured != null) {
+            return configured;
+        }
+        StatementBudget annotation = handlerMethod.getMethodAnnotation(StatementBudget.class);
+        if (annotation == null) {
+            return properties.getDefaultBudget();
+        }
+        if (!annotation.property().isEmpty()) {
+            return environment.getRequiredProperty(annotation.property(), Integer.class);
+        }
+        return annotation.value();
+    }
+}
@@ -0,0 +1,30 @@
+package com.querydsl.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/* 요청별 SQL 수 제한 설정 (member.statement-budget.*) */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.statement-budget")
+public class StatementBudgetProperties {
+
+    private Mode mode = Mode.LOG;
+
+    /* @StatementBudget 도 설정도 없는 엔드포인트에 적용. 0 이하면 제한 없음 */
+    private int defaultBudget = 0;
+
+    /* key : 컨트롤러 클래스명.메서드명 (ex. MemberController.searchMemberV1) */
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public enum Mode {
+        /* 요청이 끝난 뒤 경고 로그만 남긴다. */
+        LOG,
+        /* 제한을 넘는 SQL 이 실행되는 순간 예외로 요청을 실패시킨다. */
+        FAIL
+    }
+}
@@ -0,0 +1,90 @@
+package com.querydsl.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/*
+    요청(또는 테스트) 하나에서 실행된 SQL 수를 세는 카운터
+    : 현재 스레드에 묶어두고 MetricsStatementInspector 가 SQL 마다 기록한다.
+      값만 다르고 모양이 같은 SQL 을 하나의 패턴으로 묶어서 N+1 처럼 반복된 SQL 을 찾아준다.
+ */
+public class StatementCounter {
+
+    private static final ThreadLocal<StatementCounter> CURRENT = new ThreadLocal<>();
+    private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String name;
+    private final int budget;
+    private final boolean failOnExceed;
+    private final Map<String, Integer> patterns = new LinkedHashMap<>();
+    private int count;
+
+    private StatementCounter(String name, int budget, boolean failOnExceed) {
+        this.name = name;
+        this.budget = budget;
+        this.failOnExceed = failOnExceed;
+    }
+
+    /*
+        budget 이 0 이하면 세기만 한다.
+        failOnExceed 면 budget 을 넘는 SQL 이 실행되는 순간 StatementBudgetExceededException 을 던진다.
+     */
+    public static StatementCounter start(String name, int budget, boolean failOnExceed) {
+        StatementCounter counter = new StatementCounter(name, budget, failOnExceed);
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    public static StatementCounter current() {
+        return CURRENT.get();
+    }
+
+    public void end() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    void statement(String sql) {
+        count++;
+        patterns.merge(normalize(sql), 1, Integer::sum);
+        if (failOnExceed && isOverBudget()) {
+            throw new StatementBudgetExceededException(report());
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public boolean isOverBudget() {
+        return budget > 0 && count > budget;
+    }
+
+    /* 가장 많이 반복된 SQL 패턴 (없으면 null) */
+    public String mostRepeatedPattern() {
+        return patterns.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+
+    public String report() {
+        String pattern = mostRepeatedPattern();
+        return String.format("%s: statements=%d budget=%d mostRepeated=%dx [%s]",
+                name, count, budget, pattern != null ? patterns.get(pattern) : 0, pattern);
+    }
+
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,14 @@
+package com.querydsl.repository;
+
+/*
+    페이징 조회 시 전체 개수(total)를 구하는 방법
+    - EXACT     : count 쿼리로 정확한 개수를 구한다. (searchPageComplex 와 동일)
+    - ESTIMATED : 현재 페이지부터 최대 N 개까지만 세어서 대략적인 개수를 구한다. (EstimatedPage)
+                  N 개를 넘으면 total 은 하한값이고 totalExact=false 로 응답한다.
+    - NONE      : 개수를 구하지 않고 limit + 1 개를 조회해서 다음 페이지 존재 여부만 판단한다. (Slice)
+ */
+public enum CountStrategy {
+    EXACT,
+    ESTIMATED,
+    NONE
+}
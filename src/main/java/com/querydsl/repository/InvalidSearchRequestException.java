@@ -0,0 +1,16 @@
+package com.querydsl.repository;
+
+/*
+    클라이언트가 보낸 검색 요청 값이 잘못되었을 때 (cursor, size, 검색 조건 수 등) → 400
+    : IllegalArgumentException 을 상속하지 않으므로 리포지토리 프록시의 예외 변환을 거치지 않고 그대로 전달된다.
+ */
+public class InvalidSearchRequestException extends RuntimeException {
+
+    public InvalidSearchRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidSearchRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
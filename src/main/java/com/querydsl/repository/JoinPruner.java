@@ -0,0 +1,201 @@
+package com.querydsl.repository;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryFlag;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.MapExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    쿼리에서 쓰이지 않는 left join 을 지운다.
+    : 다대일(to-one) 연관관계로 left join 한 별칭이 select / where / group by / having / order by 와
+      다른 join 어디에서도 쓰이지 않으면, 그 join 은 row 수도 결과도 바꾸지 않으므로 빼도 된다.
+      → content 와 count 를 같은 조건으로 만들고 각각 prune 하면, count 쿼리에서는 select 에만 쓰이던 team 조인이 빠진다.
+
+    - inner join 은 연관이 없는 row 를 거르므로 지우지 않는다.
+    - 컬렉션(to-many) join 은 row 를 늘리므로 지우지 않는다.
+    - fetch join 은 결과 엔티티 그래프를 바꾸므로 지우지 않는다.
+ */
+final class JoinPruner {
+
+    private JoinPruner() {
+    }
+
+    static <T> JPAQuery<T> prune(JPAQuery<T> query, EntityManager em) {
+        QueryMetadata pruned = prune(query.getMetadata());
+        return pruned == query.getMetadata() ? query : new JPAQuery<>(em, pruned);
+    }
+
+    /* 지울 join 이 없으면 받은 metadata 를 그대로 돌려준다. */
+    static QueryMetadata prune(QueryMetadata metadata) {
+        List<JoinExpression> joins = new ArrayList<>(metadata.getJoins());
+        boolean removed = false;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (JoinExpression join : new ArrayList<>(joins)) {
+                Expression<?> alias = prunableAlias(join);
+                if (alias != null && !referencedRoots(metadata, joins, join).contains(alias)) {
+                    joins.remove(join);
+                    changed = true;
+                    removed = true;
+                }
+            }
+        }
+        return removed ? copy(metadata, joins) : metadata;
+    }
+
+    /* 지워도 되는 모양의 join 이면 그 별칭, 아니면 null */
+    private static Expression<?> prunableAlias(JoinExpression join) {
+        if (join.getType() != JoinType.LEFTJOIN || !join.getFlags().isEmpty()) {
+            return null;
+        }
+        if (!(join.getTarget() instanceof Operation)) {
+            return null;
+        }
+        Operation<?> target = (Operation<?>) join.getTarget();
+        if (target.getOperator() != Ops.ALIAS) {
+            return null;
+        }
+        Expression<?> association = target.getArg(0);
+        if (association instanceof CollectionExpression || association instanceof MapExpression) {
+            return null;
+        }
+        return target.getArg(1);
+    }
+
+    /* except 를 뺀 나머지 부분에서 쓰이는 경로의 root 별칭들 */
+    private static Set<Expression<?>> referencedRoots(QueryMetadata metadata, List<JoinExpression> joins,
+                                                      JoinExpression except) {
+        Set<Expression<?>> roots = new HashSet<>();
+        collect(metadata.getProjection(), roots);
+        collect(metadata.getWhere(), roots);
+        collect(metadata.getHaving(), roots);
+        for (Expression<?> groupBy : metadata.getGroupBy()) {
+            collect(groupBy, roots);
+        }
+        for (OrderSpecifier<?> orderBy : metadata.getOrderBy()) {
+            collect(orderBy.getTarget(), roots);
+        }
+        for (JoinExpression join : joins) {
+            if (join == except) {
+                continue;
+            }
+            Expression<?> target = join.getTarget();
+            if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+                collect(((Operation<?>) target).getArg(0), roots);
+            }
+            collect(join.getCondition(), roots);
+        }
+        return roots;
+    }
+
+    private static void collect(Expression<?> expression, Set<Expression<?>> roots) {
+        if (expression != null) {
+            expression.accept(RootCollector.INSTANCE, roots);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static QueryMetadata copy(QueryMetadata source, List<JoinExpression> joins) {
+        DefaultQueryMetadata copy = new DefaultQueryMetadata();
+        copy.setValidate(false);
+        for (JoinExpression join : joins) {
+            copy.addJoin(join.getType(), join.getTarget());
+            if (join.getCondition() != null) {
+                copy.addJoinCondition(join.getCondition());
+            }
+            join.getFlags().forEach(copy::addJoinFlag);
+        }
+        copy.setProjection(source.getProjection());
+        copy.setDistinct(source.isDistinct());
+        copy.setUnique(source.isUnique());
+        copy.setModifiers(source.getModifiers());
+        if (source.getWhere() != null) {
+            copy.addWhere(source.getWhere());
+        }
+        source.getGroupBy().forEach(copy::addGroupBy);
+        if (source.getHaving() != null) {
+            copy.addHaving(source.getHaving());
+        }
+        source.getOrderBy().forEach(copy::addOrderBy);
+        for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+            copy.setParam((ParamExpression) param.getKey(), param.getValue());
+        }
+        for (QueryFlag flag : source.getFlags()) {
+            copy.addFlag(flag);
+        }
+        return copy;
+    }
+
+    /* 식 안의 모든 경로(Path)의 root 를 모은다. (서브쿼리 안의 경로 포함) */
+    private enum RootCollector implements Visitor<Void, Set<Expression<?>>> {
+        INSTANCE;
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Expression<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Expression<?>> roots) {
+            expr.getArgs().forEach(arg -> collect(arg, roots));
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Expression<?>> roots) {
+            expr.getArgs().forEach(arg -> collect(arg, roots));
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Expression<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Expression<?>> roots) {
+            roots.add(expr.getRoot());
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Expression<?>> roots) {
+            QueryMetadata metadata = expr.getMetadata();
+            roots.addAll(referencedRoots(metadata, metadata.getJoins(), null));
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Expression<?>> roots) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    collect((Expression<?>) arg, roots);
+                }
+            }
+            return null;
+        }
+    }
+}
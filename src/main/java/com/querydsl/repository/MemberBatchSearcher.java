@@ -0,0 +1,260 @@
+package com.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.dto.MemberField;
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.querydsl.entity.QMember.member;
+import static com.querydsl.entity.QTeam.team;
+
+/*
+    여러 검색 조건을 적은 수의 SQL 로 묶어서 실행한다.
+    : 화면의 위젯마다 /v1/members 를 따로 부르면 요청 / 트랜잭션 / SQL 이 위젯 수만큼 생긴다.
+      JPQL 에는 UNION ALL 이 없으므로 조건들을 or 로 묶은 쿼리로 합집합을 읽고,
+      select 에 조건마다 case when (조건) then 1 else 0 end 플래그 컬럼을 붙여서 row 가 어느 조건의 결과인지 DB 가 판단하게 한다.
+      → 여러 조건에 걸리는 회원은 한 번만 읽는다.
+
+    - 모양(shape)이 다른 조건을 or 로 묶으면 DB 가 인덱스 하나로 범위를 좁힐 수 없으므로, 조건의 모양별로 나눠서 실행한다.
+      (같은 모양끼리는 값만 다른 같은 컬럼 조건이라 인덱스 범위를 합쳐서 읽을 수 있다.)
+      모양별로 나누면 SQL 이 maxStatements 를 넘는 경우에만 모양이 다른 조건도 branchesPerQuery 씩 섞어서 묶는다.
+    - 정규화했을 때 같은 조건(MemberCountCache.Key)이면서 fields 도 같은 검색은 플래그 하나를 같이 쓴다.
+    - fields 는 검색마다 따로 적용한다. 함께 묶인 검색들이 요청한 컬럼의 합집합만 조회하고 팀 이름을 조회하지 않으면 team 조인도 빠진다.
+    - username CONTAINS 는 3-gram 색인 없이 like 로 거른다.
+ */
+@Component
+public class MemberBatchSearcher {
+
+    private static final int HAS_TEAM_NAME = 1;
+    private static final int HAS_AGE_GOE = 1 << 1;
+    private static final int HAS_AGE_LOE = 1 << 2;
+    private static final int USERNAME_MATCH_SHIFT = 3;
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final int maxSearches;
+    private final int branchesPerQuery;
+    private final int maxStatements;
+
+    public MemberBatchSearcher(
+            JPAQueryFactory queryFactory,
+            EntityManager em,
+            @Value("${member.search.batch.max-searches:100}") int maxSearches,
+            @Value("${member.search.batch.branches-per-query:50}") int branchesPerQuery,
+            @Value("${member.search.batch.max-statements:4}") int maxStatements) {
+        if (maxSearches > (long) branchesPerQuery * maxStatements) {
+            throw new IllegalStateException("member.search.batch.max-searches(" + maxSearches + ") 는 branches-per-query("
+                    + branchesPerQuery + ") x max-statements(" + maxStatements + ") 이하여야 합니다.");
+        }
+        this.queryFactory = queryFactory;
+        this.em = em;
+        this.maxSearches = maxSearches;
+        this.branchesPerQuery = branchesPerQuery;
+        this.maxStatements = maxStatements;
+    }
+
+    /* 요청 key 순서대로 key → 검색 결과 (member.id 순) */
+    public Map<String, List<MemberTeamDto>> search(Map<String, MemberSearchCondition> searches) {
+        if (searches.size() > maxSearches) {
+            throw new InvalidSearchRequestException("한 번에 검색할 수 있는 조건은 " + maxSearches + "개까지입니다: " + searches.size());
+        }
+        searches.forEach((key, condition) -> {
+            if (condition == null) {
+                throw new InvalidSearchRequestException("검색 조건이 비어 있습니다: " + key);
+            }
+        });
+
+        Map<String, List<MemberTeamDto>> results = new LinkedHashMap<>();
+        Map<BranchKey, Branch> branches = new LinkedHashMap<>();
+        searches.forEach((key, condition) -> {
+            List<MemberTeamDto> result = new ArrayList<>();
+            results.put(key, result);
+            branches.computeIfAbsent(BranchKey.of(condition), k -> new Branch(condition)).results.add(result);
+        });
+
+        TeamValueInterner interner = new TeamValueInterner();
+        for (List<Branch> statement : statements(branches.values())) {
+            fetch(statement, interner);
+        }
+        return results;
+    }
+
+    /* 모양별로 branchesPerQuery 씩 나누고, 그러면 maxStatements 를 넘을 때만 모양을 섞어서 나눈다. */
+    private List<List<Branch>> statements(Iterable<Branch> branches) {
+        Map<Integer, List<Branch>> byShape = new LinkedHashMap<>();
+        for (Branch branch : branches) {
+            byShape.computeIfAbsent(shape(branch.condition), k -> new ArrayList<>()).add(branch);
+        }
+
+        List<List<Branch>> statements = new ArrayList<>();
+        List<Branch> ordered = new ArrayList<>();
+        for (List<Branch> sameShape : byShape.values()) {
+            statements.addAll(partition(sameShape));
+            ordered.addAll(sameShape);
+        }
+        return statements.size() > maxStatements ? partition(ordered) : statements;
+    }
+
+    private List<List<Branch>> partition(List<Branch> branches) {
+        List<List<Branch>> parts = new ArrayList<>();
+        for (int from = 0; from < branches.size(); from += branchesPerQuery) {
+            parts.add(branches.subList(from, Math.min(from + branchesPerQuery, branches.size())));
+        }
+        return parts;
+    }
+
+    private void fetch(List<Branch> branches, TeamValueInterner interner) {
+        int fields = 0;
+        for (Branch branch : branches) {
+            fields |= branch.fields;
+        }
+        List<Expression<?>> select = new ArrayList<>(MemberTeamProjection.columns(fields));
+        int columns = select.size();
+
+        List<Predicate> predicates = new ArrayList<>(branches.size());
+        for (Branch branch : branches) {
+            BooleanExpression predicate = predicate(branch.condition);
+            predicates.add(predicate);
+            /* 조건이 하나뿐이면 모든 row 가 그 조건의 결과이므로 플래그가 필요 없다. */
+            if (branches.size() > 1) {
+                select.add(flag(predicate));
+            }
+        }
+
+        JPAQuery<Tuple> query = queryFactory
+                .select(select.toArray(new Expression<?>[0]))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(ExpressionUtils.anyOf(predicates))
+                .orderBy(member.id.asc());
+        List<Tuple> rows = JoinPruner.prune(query, em).fetch();
+
+        for (Tuple row : rows) {
+            Object[] values = row.toArray();
+            Object[] all = new Object[MemberField.values().length];
+            int index = 0;
+            for (MemberField field : MemberField.values()) {
+                if (field.in(fields)) {
+                    all[field.ordinal()] = values[index++];
+                }
+            }
+            /* 같은 row 를 같은 fields 로 요청한 검색끼리는 같은 DTO 를 쓴다. */
+            Map<Integer, MemberTeamDto> dtoByFields = new HashMap<>();
+            for (int i = 0; i < branches.size(); i++) {
+                if (branches.size() > 1 && !matched(values[columns + i])) {
+                    continue;
+                }
+                Branch branch = branches.get(i);
+                MemberTeamDto dto = dtoByFields.computeIfAbsent(branch.fields, mask -> toDto(interner, mask, all));
+                branch.results.forEach(result -> result.add(dto));
+            }
+        }
+    }
+
+    private static boolean matched(Object flag) {
+        return flag instanceof Number && ((Number) flag).intValue() == 1;
+    }
+
+    /* all 은 MemberField 순서의 값. fields 에 없는 필드는 null 로 둔다. */
+    private static MemberTeamDto toDto(TeamValueInterner interner, int fields, Object[] all) {
+        return interner.toDto(
+                (Long) valueOf(MemberField.MEMBER_ID, fields, all),
+                (String) valueOf(MemberField.USERNAME, fields, all),
+                (Integer) valueOf(MemberField.AGE, fields, all),
+                (Long) valueOf(MemberField.TEAM_ID, fields, all),
+                (String) valueOf(MemberField.TEAM_NAME, fields, all));
+    }
+
+    private static Object valueOf(MemberField field, int fields, Object[] all) {
+        return field.in(fields) ? all[field.ordinal()] : null;
+    }
+
+    /*
+        조건을 만족하면 1, 아니면 0
+        : 결과값만 리터럴이고 조건(branch)의 username / teamName / age 값은 where 절과 별도로 select 절에도 바인딩된다.
+          값을 SQL 에 직접 넣지 않기 위해 그대로 둔다. (branch 수만큼 바인딩 값이 늘어나는 것은 branchesPerQuery 로 제한한다.)
+     */
+    private static NumberExpression<Integer> flag(BooleanExpression branch) {
+        return Expressions.numberTemplate(Integer.class, "case when {0} then 1 else 0 end", branch);
+    }
+
+    /* 어떤 조건이 있는지(username 은 검색 방식까지)만 나타낸다. 값은 포함하지 않는다. */
+    private static int shape(MemberSearchCondition condition) {
+        int shape = 0;
+        if (StringUtils.hasText(condition.getUsername())) {
+            shape |= (condition.getUsernameMatch().ordinal() + 1) << USERNAME_MATCH_SHIFT;
+        }
+        if (StringUtils.hasText(condition.getTeamName())) {
+            shape |= HAS_TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= HAS_AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= HAS_AGE_LOE;
+        }
+        return shape;
+    }
+
+    /* 조건이 하나도 없으면 전체 */
+    private static BooleanExpression predicate(MemberSearchCondition condition) {
+        BooleanExpression predicate = member.id.isNotNull();
+        if (StringUtils.hasText(condition.getUsername())) {
+            predicate = predicate.and(MemberPredicates.username(condition));
+        }
+        if (StringUtils.hasText(condition.getTeamName())) {
+            predicate = predicate.and(team.name.eq(condition.getTeamName()));
+        }
+        if (condition.getAgeGoe() != null) {
+            predicate = predicate.and(member.age.goe(condition.getAgeGoe()));
+        }
+        if (condition.getAgeLoe() != null) {
+            predicate = predicate.and(member.age.loe(condition.getAgeLoe()));
+        }
+        return predicate;
+    }
+
+    /* 같은 결과를 돌려주는 검색인지 : 정규화한 조건 + 조회할 필드 */
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class BranchKey {
+        private final MemberCountCache.Key condition;
+        private final int fields;
+
+        static BranchKey of(MemberSearchCondition condition) {
+            return new BranchKey(MemberCountCache.Key.of(condition), MemberField.mask(condition.getFields()));
+        }
+    }
+
+    private static class Branch {
+        private final MemberSearchCondition condition;
+        private final int fields;
+        /* 이 조건을 요청한 key 들의 결과 목록 */
+        private final List<List<MemberTeamDto>> results = new ArrayList<>();
+
+        Branch(MemberSearchCondition condition) {
+            this.condition = condition;
+            this.fields = MemberField.mask(condition.getFields());
+        }
+    }
+}
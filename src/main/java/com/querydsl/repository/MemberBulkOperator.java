@@ -0,0 +1,193 @@
+package com.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.entity.Member;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.querydsl.entity.QMember.member;
+import static com.querydsl.entity.QTeam.team;
+
+/*
+    청크 단위 벌크 update / delete
+    : update(member)...execute() 한 번으로 큰 테이블을 바꾸면 문장이 끝날 때까지 대상 row 전체에 락이 잡혀서
+      그동안 같은 row 를 읽고 쓰는 요청이 막힌다. 그리고 영속성 컨텍스트에는 바뀌기 전 엔티티가 그대로 남는다.
+      → PK 순서로 chunkSize 개씩(id > 마지막 id order by id limit chunkSize) 잘라서 청크마다 별도 트랜잭션으로 커밋하고,
+        청크 사이에 pause 만큼 쉰다. id 가 듬성듬성해도 빈 구간마다 트랜잭션을 열지 않는다.
+        청크가 커밋될 때마다 그 청크의 회원만 호출한 쪽의 영속성 컨텍스트에서 빼고 count 캐시를 비운다. (바뀐 id 를 모아 두지 않는다.)
+        청크마다 MembersBulkChangedEvent 를, 작업이 끝나면(실패해도) MembersBulkFinishedEvent 를 한 번 발행한다.
+
+    청크마다 커밋되므로 전체가 하나의 트랜잭션으로 묶이지 않는다. (중간에 실패하면 앞 청크는 반영된 상태)
+    호출한 쪽 트랜잭션이 대상 row 를 잡고 있으면 청크 트랜잭션이 기다리게 되므로 트랜잭션 밖에서 호출한다.
+ */
+@Component
+public class MemberBulkOperator {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManagerFactory emf;
+    private final MemberCountCache countCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final Duration chunkPause;
+
+    public MemberBulkOperator(
+            JPAQueryFactory queryFactory,
+            EntityManagerFactory emf,
+            MemberCountCache countCache,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${member.bulk.chunk-size:1000}") int chunkSize,
+            @Value("${member.bulk.chunk-pause:50ms}") Duration chunkPause) {
+        this.queryFactory = queryFactory;
+        this.emf = emf;
+        this.countCache = countCache;
+        this.eventPublisher = eventPublisher;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+        this.chunkPause = chunkPause;
+    }
+
+    public long update(MemberSearchCondition condition, Consumer<JPAUpdateClause> assignments) {
+        return run(condition, false, ids -> {
+            JPAUpdateClause update = queryFactory.update(member);
+            assignments.accept(update);
+            return update
+                    .where(member.id.in(ids))
+                    .where(predicates(condition))
+                    .execute();
+        });
+    }
+
+    public long delete(MemberSearchCondition condition) {
+        return run(condition, true, ids -> queryFactory
+                .delete(member)
+                .where(member.id.in(ids))
+                .where(predicates(condition))
+                .execute());
+    }
+
+    private long run(MemberSearchCondition condition, boolean deleted, ChunkStatement statement) {
+        long affected = 0;
+        boolean changed = false;
+        Long lastId = null;
+        try {
+            while (true) {
+                Long afterId = lastId;
+                Chunk chunk = chunkTransaction.execute(status -> {
+                    List<Long> chunkIds = queryFactory
+                            .select(member.id)
+                            .from(member)
+                            .where(afterId != null ? member.id.gt(afterId) : null)
+                            .where(predicates(condition))
+                            .orderBy(member.id.asc())
+                            .limit(chunkSize)
+                            .fetch();
+                    long rows = chunkIds.isEmpty() ? 0 : statement.execute(chunkIds);
+                    return new Chunk(chunkIds, rows);
+                });
+                if (chunk.ids.isEmpty()) {
+                    break;
+                }
+                lastId = chunk.ids.get(chunk.ids.size() - 1);
+
+                /* id 를 고른 뒤 실행하기 전에 바뀌거나 지워진 row 는 세지 않는다. */
+                if (chunk.rows > 0) {
+                    affected += chunk.rows;
+                    changed = true;
+                    countCache.invalidateAll();
+                    detach(chunk.ids);
+                    eventPublisher.publishEvent(new MembersBulkChangedEvent(Collections.unmodifiableList(chunk.ids), deleted));
+                }
+                if (chunk.ids.size() < chunkSize) {
+                    break;
+                }
+                pause();
+            }
+        } finally {
+            if (changed) {
+                eventPublisher.publishEvent(new MembersBulkFinishedEvent());
+            }
+        }
+        return affected;
+    }
+
+    /*
+        커밋된 청크의 회원을 호출한 쪽 영속성 컨텍스트(트랜잭션이나 open-in-view 로 묶여 있는 경우)에서 뺀다.
+        청크마다 바로 빼므로 뒤 청크가 실패해도 앞 청크의 엔티티가 바뀌기 전 상태로 남지 않는다.
+        (Member 는 2차 캐시 대상이 아니므로 영속성 컨텍스트만 정리하면 된다.)
+     */
+    private void detach(List<Long> ids) {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+        if (holder == null) {
+            return;
+        }
+        SessionImplementor session = holder.getEntityManager().unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                holder.getEntityManager().detach(managed);
+            }
+        }
+    }
+
+    private void pause() {
+        if (chunkPause.isZero() || chunkPause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(chunkPause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("벌크 작업이 중단되었습니다.", e);
+        }
+    }
+
+    /* update / delete 문에는 join 을 쓸 수 없으므로 팀 이름은 서브쿼리로 거른다. */
+    private static BooleanExpression[] predicates(MemberSearchCondition condition) {
+        return new BooleanExpression[]{
+                MemberPredicates.username(condition),
+                StringUtils.hasText(condition.getTeamName())
+                        ? member.team.id.in(JPAExpressions.select(team.id).from(team).where(team.name.eq(condition.getTeamName())))
+                        : null,
+                condition.getAgeGoe() != null ? member.age.goe(condition.getAgeGoe()) : null,
+                condition.getAgeLoe() != null ? member.age.loe(condition.getAgeLoe()) : null
+        };
+    }
+
+    @FunctionalInterface
+    private interface ChunkStatement {
+        long execute(List<Long> ids);
+    }
+
+    private static class Chunk {
+        private final List<Long> ids;
+        private final long rows;
+
+        Chunk(List<Long> ids, long rows) {
+            this.ids = ids;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.querydsl.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.dto.UsernameMatch;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+    페이징 Count Query 결과 캐시
+    : 같은 검색 조건으로 페이지를 넘길 때마다 동일한 count 쿼리가 반복되는 것을 막는다.
+      TTL 과 최대 크기를 넘으면 제거되고, Member / Team 이 변경되면 전체를 비운다.
+ */
+@Component
+public class MemberCountCache {
+
+    private final Cache<Key, Long> cache;
+
+    public MemberCountCache(
+            @Value("${member.count-cache.ttl:30s}") Duration ttl,
+            @Value("${member.count-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public long get(MemberSearchCondition condition, Supplier<Long> countQuery) {
+        return cache.get(Key.of(condition), key -> countQuery.get());
+    }
+
+    /* 캐시된 count 가 없으면 null */
+    public Long getIfPresent(MemberSearchCondition condition) {
+        return cache.getIfPresent(Key.of(condition));
+    }
+
+    public void put(MemberSearchCondition condition, long count) {
+        cache.put(Key.of(condition), count);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /* "" 와 null 처럼 조건절이 생략되어 같은 쿼리가 되는 조건은 같은 key 로 정규화한다. */
+    @EqualsAndHashCode
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    static class Key {
+        private final String username;
+        private final String teamName;
+        private final Integer ageGoe;
+        private final Integer ageLoe;
+        private final UsernameMatch usernameMatch;
+
+        static Key of(MemberSearchCondition condition) {
+            return new Key(
+                    normalize(condition.getUsername()),
+                    normalize(condition.getTeamName()),
+                    condition.getAgeGoe(),
+                    condition.getAgeLoe(),
+                    condition.getUsernameMatch()
+            );
+        }
+
+        private static String normalize(String value) {
+            return StringUtils.hasText(value) ? value : null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.querydsl.repository;
+
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/*
+    Member / Team 이 저장, 수정, 삭제되면 count 캐시를 비운다.
+    : flush 시점(POST_*)에 한 번 비우고, 트랜잭션이 끝난 뒤(POST_COMMIT_*)에 다시 한 번 비운다.
+      커밋 전에 다른 트랜잭션이 이전 데이터로 count 를 다시 채워 넣는 경우를 막기 위함이다.
+      롤백되면(onPost*CommitFailed) 같은 트랜잭션 안에서 커밋되지 않은 데이터로 채운 count 가 남으므로 그때도 비운다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberCountCacheInvalidator
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final MemberCountCache countCache;
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+
+    private void invalidate(Object entity) {
+        if (entity instanceof Member || entity instanceof Team) {
+            countCache.invalidateAll();
+        }
+    }
+}
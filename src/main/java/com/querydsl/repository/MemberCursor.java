@@ -0,0 +1,41 @@
+package com.querydsl.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+    Keyset 페이징에 사용하는 cursor
+    : 마지막으로 내려준 member.id 를 Base64(URL) 로 감싸서 클라이언트에게는 의미 없는 문자열로 보이게 한다.
+ */
+final class MemberCursor {
+
+    private static final String PREFIX = "m:";
+
+    private MemberCursor() {
+    }
+
+    static String encode(Long lastMemberId) {
+        byte[] raw = (PREFIX + lastMemberId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchRequestException("잘못된 cursor 입니다: " + cursor, e);
+        }
+        if (!raw.startsWith(PREFIX)) {
+            throw new InvalidSearchRequestException("잘못된 cursor 입니다: " + cursor);
+        }
+        try {
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new InvalidSearchRequestException("잘못된 cursor 입니다: " + cursor, e);
+        }
+    }
+}
@@ -2,8 +2,6 @@ package com.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.Projections;
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.dto.MemberSearchCondition;
 import com.querydsl.dto.MemberTeamDto;
 import com.querydsl.entity.Member;
@@ -11,6 +9,7 @@ import com.querydsl.entity.QTeam;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
@@ -26,6 +25,7 @@ public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryCompiler queryCompiler;
 
     public void save(Member member) {
         em.persist(member);
@@ -60,11 +60,17 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /*
+        BooleanBuilder 로 요청마다 조건을 조립하는 기준 구현
+        : 검색 엔드포인트는 searchByWhereParameter(MemberSearchQueryCompiler)를 쓴다.
+          이 메서드는 컴파일러를 거치지 않는 비교 대상으로 남겨 두고, 컴파일러 테스트의 기댓값과 벤치마크 기준선으로 쓴다.
+     */
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
         BooleanBuilder builder = new BooleanBuilder();
         if (StringUtils.hasText(condition.getUsername())) {
-            builder.and(member.username.eq(condition.getUsername()));
+            builder.and(MemberPredicates.username(condition));
         }
         if (StringUtils.hasText(condition.getTeamName())) {
             builder.and(team.name.eq(condition.getTeamName()));
@@ -76,53 +82,17 @@ public class MemberJpaRepository {
             builder.and(member.age.loe(condition.getAgeLoe()));
         }
 
-        return queryFactory
-                .select(Projections.constructor(MemberTeamDto.class,
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
+        return JoinPruner.prune(queryFactory
+                .select(new MemberTeamProjection())
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(builder)
+                .where(builder), em)
                 .fetch();
     }
 
+    /* 검색 조건의 모양(shape)별로 미리 컴파일해 둔 쿼리를 재사용한다. (MemberSearchQueryCompiler) */
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByWhereParameter(MemberSearchCondition condition) {
-        return queryFactory
-                .select(Projections.constructor(MemberTeamDto.class,
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEqual(condition.getUsername()),
-                        teamNameEqual(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
-    }
-
-    private BooleanExpression usernameEqual(String username) {
-        return StringUtils.hasText(username) ? member.username.eq(username) : null;
-    }
-
-    private BooleanExpression teamNameEqual(String teamName) {
-        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+        return queryCompiler.fetchContent(condition);
     }
 }
@@ -0,0 +1,189 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.MemberSearchCondition;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+    count 쿼리 병렬 실행기 (member.search.parallel-count.enabled=true 일 때만 동작)
+    : content 쿼리를 실행하는 동안 별도 스레드에서 count 쿼리를 실행한다.
+      → 페이지 응답 시간이 content + count 에서 max(content, count) 가 된다.
+
+    - 스레드 수와 대기열 크기가 정해진 executor 를 사용하고, 꽉 차면 기존처럼 요청 스레드에서 센다.
+    - PageableExecutionUtils 가 count 가 필요 없다고 판단하면 실행 중인 쿼리를 취소한다.
+    - count 는 spring.datasource 로 만든 전용 커넥션 풀(스레드 수만큼, 읽기 전용)에서 실행한다.
+      요청 스레드는 커넥션을 잡은 채 count 를 기다리므로, 같은 풀에서 count 커넥션을 얻으려 하면
+      부하가 몰릴 때 모든 요청이 커넥션 하나씩 잡고 서로를 기다리다 타임아웃이 난다.
+      (전용 풀은 스레드마다 커넥션 하나라 기다리는 일이 없다. replica 라우팅을 켜도 count 는 primary 에서 센다.)
+ */
+@Slf4j
+@Component
+public class MemberParallelCounter {
+
+    private final MemberSearchQueryCompiler queryCompiler;
+    private final MemberCountCache countCache;
+    private final SessionFactory sessionFactory;
+    private final HikariDataSource countDataSource;
+    private final ThreadPoolTaskExecutor executor;
+
+    public MemberParallelCounter(
+            MemberSearchQueryCompiler queryCompiler,
+            MemberCountCache countCache,
+            EntityManagerFactory emf,
+            DataSourceProperties dataSourceProperties,
+            @Value("${member.search.parallel-count.enabled:false}") boolean enabled,
+            @Value("${member.search.parallel-count.threads:4}") int threads,
+            @Value("${member.search.parallel-count.queue-capacity:100}") int queueCapacity) {
+        this.queryCompiler = queryCompiler;
+        this.countCache = countCache;
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+
+        if (enabled) {
+            countDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            countDataSource.setPoolName("member-count");
+            countDataSource.setMaximumPoolSize(threads);
+            countDataSource.setMinimumIdle(0);
+            countDataSource.setReadOnly(true);
+
+            executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(threads);
+            executor.setMaxPoolSize(threads);
+            executor.setQueueCapacity(queueCapacity);
+            executor.setThreadNamePrefix("member-count-");
+            executor.initialize();
+        } else {
+            countDataSource = null;
+            executor = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /* count 쿼리를 바로 시작한다. 캐시에 있으면 쿼리 없이 그 값을 쓴다. */
+    public PendingCount start(MemberSearchCondition condition) {
+        Long cached = countCache.getIfPresent(condition);
+        if (cached != null) {
+            return new PendingCount(CompletableFuture.completedFuture(cached), null, null);
+        }
+
+        AtomicReference<Session> running = new AtomicReference<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        try {
+            CompletableFuture<Long> future = CompletableFuture.supplyAsync(
+                    () -> countOnCountPool(condition, running, cancelled),
+                    executor);
+            return new PendingCount(future, running, cancelled);
+        } catch (TaskRejectedException e) {
+            log.debug("count executor 가 꽉 차서 요청 스레드에서 count 합니다.");
+            return new PendingCount(null, null, null) {
+                @Override
+                public long join() {
+                    return countCache.get(condition, () -> queryCompiler.count(condition));
+                }
+            };
+        }
+    }
+
+    /*
+        cancel() 은 취소 표시를 먼저 하고 실행 중인 session 을 보고, 여기서는 session 을 먼저 알리고 취소 표시를 본다.
+        → 어느 순서로 겹쳐도 취소된 count 쿼리가 끝까지 실행되지 않는다. 취소된 결과는 캐시에 넣지 않는다.
+     */
+    private Long countOnCountPool(MemberSearchCondition condition, AtomicReference<Session> running, AtomicBoolean cancelled) {
+        Long cached = countCache.getIfPresent(condition);
+        if (cached != null) {
+            return cached;
+        }
+        long count;
+        try (Connection connection = countDataSource.getConnection();
+             Session session = sessionFactory.withOptions().connection(connection).openSession()) {
+            running.set(session);
+            try {
+                if (cancelled.get()) {
+                    throw new CancellationException("count 쿼리가 취소되었습니다.");
+                }
+                count = queryCompiler.count(condition, session);
+            } finally {
+                running.set(null);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("count 커넥션을 얻지 못했습니다.", e);
+        }
+        if (!cancelled.get()) {
+            countCache.put(condition, count);
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            countDataSource.close();
+        }
+    }
+
+    public static class PendingCount {
+        private final CompletableFuture<Long> future;
+        private final AtomicReference<Session> running;
+        private final AtomicBoolean cancelled;
+
+        private PendingCount(CompletableFuture<Long> future, AtomicReference<Session> running, AtomicBoolean cancelled) {
+            this.future = future;
+            this.running = running;
+            this.cancelled = cancelled;
+        }
+
+        public long join() {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("count 쿼리를 기다리는 중 인터럽트 되었습니다.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        /* 아직 끝나지 않았으면 대기열에서 빼거나 실행 중인 쿼리를 취소한다. 이미 끝났으면 아무것도 하지 않는다. */
+        public void cancel() {
+            if (future == null || future.isDone()) {
+                return;
+            }
+            cancelled.set(true);
+            future.cancel(false);
+            Session session = running.get();
+            if (session != null) {
+                try {
+                    session.cancelQuery();
+                } catch (RuntimeException e) {
+                    log.debug("count 쿼리 취소 실패 (이미 끝났을 수 있음)", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.dto.MemberSearchCondition;
+import org.springframework.util.StringUtils;
+
+import static com.querydsl.entity.QMember.member;
+
+/*
+    여러 검색 경로(QueryDSL 동적 쿼리, 벌크 연산, 배치 검색)가 함께 쓰는 회원 검색 조건절
+    : MemberSearchQueryCompiler 는 Param 으로 미리 컴파일하므로 같은 규칙을 따로 구현한다.
+ */
+final class MemberPredicates {
+
+    private MemberPredicates() {
+    }
+
+    /* username 을 usernameMatch(EXACT / PREFIX / CONTAINS) 방식으로 비교한다. username 이 없으면 null */
+    static BooleanExpression username(MemberSearchCondition condition) {
+        if (!StringUtils.hasText(condition.getUsername())) {
+            return null;
+        }
+        switch (condition.getUsernameMatch()) {
+            case PREFIX:
+                return member.username.startsWith(condition.getUsername());
+            case CONTAINS:
+                return member.username.contains(condition.getUsername());
+            case EXACT:
+            default:
+                return member.username.eq(condition.getUsername());
+        }
+    }
+}
@@ -1,14 +1,30 @@
 package com.querydsl.repository;
 
+import com.querydsl.dto.BulkWriteResult;
+import com.querydsl.dto.CursorSlice;
 import com.querydsl.dto.MemberSearchCondition;
 import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.dto.MemberUpsertDto;
+import com.querydsl.entity.Member;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface MemberRepositoryCustom {
     List<MemberTeamDto> searchByWhereParameter(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    Slice<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable, CountStrategy countStrategy);
+    CursorSlice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, int size);
+    Map<String, List<MemberTeamDto>> searchBatch(Map<String, MemberSearchCondition> searches);
+    void streamByCondition(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer);
+    long bulkUpdate(MemberSearchCondition condition, Consumer<JPAUpdateClause> assignments);
+    long bulkDelete(MemberSearchCondition condition);
+    BulkWriteResult saveAllBatched(Iterable<Member> members);
+    BulkWriteResult upsertByUsername(Iterable<MemberUpsertDto> rows);
 }
@@ -1,133 +1,433 @@
 package com.querydsl.repository;
 
-import com.querydsl.core.QueryResults;
-import com.querydsl.core.types.Projections;
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.dto.BulkWriteResult;
+import com.querydsl.dto.CursorSlice;
+import com.querydsl.dto.EstimatedPage;
 import com.querydsl.dto.MemberSearchCondition;
 import com.querydsl.dto.MemberTeamDto;
-import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.dto.MemberUpsertDto;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
 import com.querydsl.jpa.impl.JPAQueryFactory;
-import lombok.RequiredArgsConstructor;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import javax.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.querydsl.entity.QMember.member;
 import static com.querydsl.entity.QTeam.team;
 
-@RequiredArgsConstructor
+/* 검색은 읽기 전용 트랜잭션으로 실행한다. (replica 라우팅이 켜져 있으면 replica 에서 읽는다.) */
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    /* size + 1 개를 조회하므로 overflow 가 나지 않도록 한 페이지 크기를 제한한다. */
+    private static final int MAX_CURSOR_SIZE = 1000;
+
     private final JPAQueryFactory queryFactory;
+    private final MemberCountCache countCache;
+    private final MemberSearchQueryCompiler queryCompiler;
+    private final MemberParallelCounter parallelCounter;
+    private final MemberBulkOperator bulkOperator;
+    private final MemberBatchSearcher batchSearcher;
+    private final EntityManager em;
+    private final TransactionTemplate writeTransaction;
+    private final long estimatedCountLimit;
+    private final int exportFetchSize;
+    private final int bulkBatchSize;
+
+    public MemberRepositoryImpl(
+            JPAQueryFactory queryFactory,
+            MemberCountCache countCache,
+            MemberSearchQueryCompiler queryCompiler,
+            MemberParallelCounter parallelCounter,
+            MemberBulkOperator bulkOperator,
+            MemberBatchSearcher batchSearcher,
+            EntityManager em,
+            PlatformTransactionManager transactionManager,
+            @Value("${member.search.estimated-count-limit:1000}") long estimatedCountLimit,
+            @Value("${member.export.fetch-size:1000}") int exportFetchSize,
+            @Value("${member.bulk.batch-size:1000}") int bulkBatchSize) {
+        this.queryFactory = queryFactory;
+        this.countCache = countCache;
+        this.queryCompiler = queryCompiler;
+        this.parallelCounter = parallelCounter;
+        this.bulkOperator = bulkOperator;
+        this.batchSearcher = batchSearcher;
+        this.em = em;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.estimatedCountLimit = estimatedCountLimit;
+        this.exportFetchSize = exportFetchSize;
+        this.bulkBatchSize = bulkBatchSize;
+    }
 
+    /* 검색 조건의 모양(shape)별로 미리 컴파일해 둔 쿼리를 재사용한다. (MemberSearchQueryCompiler) */
     @Override
     public List<MemberTeamDto> searchByWhereParameter(MemberSearchCondition condition) {
-        return queryFactory
-                .select(Projections.constructor(MemberTeamDto.class,
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEqual(condition.getUsername()),
-                        teamNameEqual(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+        return queryCompiler.fetchContent(condition);
     }
 
+    /* content 와 count 모두 MemberSearchQueryCompiler 의 shape 별 쿼리를 쓴다. (count 는 캐시하지 않고 매번 센다.) */
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = queryFactory
-                .select(Projections.constructor(MemberTeamDto.class,
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEqual(condition.getUsername()),
-                        teamNameEqual(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
-
-        List<MemberTeamDto> content = results.getResults();
-        long total = results.getTotal();
+        List<MemberTeamDto> content = queryCompiler
+                .fetchContent(condition, pageable.getOffset(), pageable.getPageSize());
+        long total = queryCompiler.count(condition);
 
         return new PageImpl<>(content, pageable, total);
     }
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
-                .select(Projections.constructor(MemberTeamDto.class,
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEqual(condition.getUsername()),
-                        teamNameEqual(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEqual(condition.getUsername()),
-                        teamNameEqual(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+        if (parallelCounter.isEnabled()) {
+            return searchPageParallelCount(condition, pageable);
+        }
+
+        List<MemberTeamDto> content = queryCompiler
+                .fetchContent(condition, pageable.getOffset(), pageable.getPageSize());
 
         /*
             Spring Data 에서 제공 되는 기능 (카운트 쿼리 성능 최적화)
             (1) 첫 번째 페이지이고, Page Size 보다 Content Size 가 적을 때 Count Query X
             (2) 마지막 페이지일 때는 Offset + Page Size 해서 Total 사용 Count Query X
          */
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchFirst);
+        /* 그 외에는 같은 조건의 count 결과를 캐시해서 페이지를 넘길 때마다 다시 세지 않는다. */
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.get(condition, () -> queryCompiler.count(condition)));
         // return new PageImpl<>(content, pageable, total);
     }
 
-    private BooleanExpression usernameEqual(String username) {
-        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    /* count 쿼리를 먼저 다른 커넥션에서 시작해두고 content 를 조회한다. 필요 없었던 count 는 취소한다. */
+    private Page<MemberTeamDto> searchPageParallelCount(MemberSearchCondition condition, Pageable pageable) {
+        MemberParallelCounter.PendingCount count = parallelCounter.start(condition);
+        try {
+            List<MemberTeamDto> content = queryCompiler
+                    .fetchContent(condition, pageable.getOffset(), pageable.getPageSize());
+            return PageableExecutionUtils.getPage(content, pageable, count::join);
+        } finally {
+            count.cancel();
+        }
+    }
+
+    /*
+        Keyset(seek) 페이징
+        : offset 은 앞의 row 를 모두 읽고 버려야 해서 뒤 페이지로 갈수록 느려진다.
+          마지막으로 본 member.id 보다 큰 row 부터 PK 인덱스를 타고 읽기 때문에 몇 번째 페이지든 비용이 같다.
+          다음 페이지 존재 여부는 size + 1 개를 조회해서 판단한다. (count query X)
+     */
+    @Override
+    public CursorSlice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, int size) {
+        if (size < 1 || size > MAX_CURSOR_SIZE) {
+            throw new InvalidSearchRequestException("size 는 1 이상 " + MAX_CURSOR_SIZE + " 이하여야 합니다: " + size);
+        }
+
+        List<MemberTeamDto> content = queryCompiler
+                .fetchContentAfter(condition, MemberCursor.decode(cursor), size + 1);
+
+        boolean hasNext = content.size() > size;
+        if (!hasNext) {
+            return new CursorSlice<>(content, null, false);
+        }
+
+        List<MemberTeamDto> page = new ArrayList<>(content.subList(0, size));
+        String nextCursor = MemberCursor.encode(page.get(size - 1).getMemberId());
+        return new CursorSlice<>(page, nextCursor, true);
+    }
+
+    /* 여러 검색 조건을 SQL 한 번으로 묶어서 실행한다. (MemberBatchSearcher) */
+    @Override
+    public Map<String, List<MemberTeamDto>> searchBatch(Map<String, MemberSearchCondition> searches) {
+        return batchSearcher.search(searches);
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchPage(
+            MemberSearchCondition condition, Pageable pageable, CountStrategy countStrategy) {
+        switch (countStrategy) {
+            case EXACT:
+                return searchPageComplex(condition, pageable);
+            case ESTIMATED:
+                return searchPageEstimated(condition, pageable);
+            case NONE:
+                return searchSlice(condition, pageable);
+            default:
+                throw new IllegalArgumentException("지원하지 않는 count 전략입니다: " + countStrategy);
+        }
+    }
+
+    /*
+        현재 페이지 위치부터 최대 estimatedCountLimit 개의 id 만 읽어서 total 을 구한다.
+        : 전체를 세지 않기 때문에 결과가 많아도 비용이 일정하다.
+          제한에 걸리면 total 은 "최소 이만큼" 인 하한값이므로 EstimatedPage.totalExact=false 로 알린다.
+          (PageableExecutionUtils 처럼 마지막 페이지임을 content 로 알 수 있으면 id 를 읽지 않는다.)
+     */
+    private EstimatedPage<MemberTeamDto> searchPageEstimated(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = queryCompiler
+                .fetchContent(condition, pageable.getOffset(), pageable.getPageSize());
+
+        if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            return new EstimatedPage<>(content, pageable, pageable.getOffset() + content.size(), true);
+        }
+        int sampleLimit = (int) Math.max(estimatedCountLimit, pageable.getPageSize() + 1L);
+        int sampled = queryCompiler.fetchIds(condition, pageable.getOffset(), sampleLimit).size();
+        return new EstimatedPage<>(content, pageable, pageable.getOffset() + sampled, sampled < sampleLimit);
+    }
+
+    /* count 쿼리 없이 limit + 1 개를 조회해서 다음 페이지가 있는지만 판단한다. (무한 스크롤) */
+    private Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = queryCompiler
+                .fetchContent(condition, pageable.getOffset(), pageable.getPageSize() + 1);
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /*
+        결과 전체를 List 로 만들지 않고 한 건씩 consumer 에게 넘긴다.
+        : JDBC fetch size 만큼씩 커서로 읽어온다. (MySQL 은 useCursorFetch=true 필요)
+          DTO 로 바로 조회하므로 영속성 컨텍스트에 엔티티가 쌓이지 않아 결과 크기와 상관없이 메모리 사용량이 일정하다.
+          커서가 열려 있는 동안 커넥션을 잡고 있어야 하므로 트랜잭션 안에서 실행한다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByCondition(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer) {
+        try (Stream<MemberTeamDto> stream = queryCompiler.streamContent(condition, exportFetchSize)) {
+            stream.forEach(consumer);
+        }
+    }
+
+    /*
+        PK 순서로 나눠서 청크마다 커밋하는 벌크 update / delete (MemberBulkOperator)
+        ex) bulkUpdate(condition, update -> update.set(member.age, member.age.add(1)))
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long bulkUpdate(MemberSearchCondition condition, Consumer<JPAUpdateClause> assignments) {
+        return bulkOperator.update(condition, assignments);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long bulkDelete(MemberSearchCondition condition) {
+        return bulkOperator.delete(condition);
+    }
+
+    /*
+        대량 저장
+        : batchSize 건씩 JDBC batch insert / update 후 flush 한다.
+          Team 은 batch 마다 id 별로 한 번만 프록시를 만들고, 이미 id 가 있는 회원은
+          건건이 merge(select) 하지 않고 batch 단위 in 쿼리 한 번으로 불러와서 변경 감지로 update 한다.
+        [ clear ]
+          이 메서드가 트랜잭션을 시작한 경우에만 batch 마다 영속성 컨텍스트를 비운다.
+          호출한 쪽 트랜잭션에 참여하면 그쪽 엔티티가 준영속이 되지 않도록 비우지 않는다. (저장한 엔티티가 그대로 남는다.)
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BulkWriteResult saveAllBatched(Iterable<Member> members) {
+        boolean clear = !TransactionSynchronizationManager.isActualTransactionActive();
+        return writeTransaction.execute(status -> {
+            BulkWriteCounter counter = new BulkWriteCounter();
+            List<Member> batch = new ArrayList<>(bulkBatchSize);
+            for (Member m : members) {
+                batch.add(m);
+                if (batch.size() == bulkBatchSize) {
+                    saveBatch(batch, counter, clear);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                saveBatch(batch, counter, clear);
+            }
+            return counter.toResult();
+        });
+    }
+
+    /*
+        username 기준 upsert
+        : batch 마다 팀 이름과 username 을 각각 in 쿼리 한 번으로 조회해서,
+          없는 팀은 새로 만들고 이미 있는 회원은 나이 / 팀을 수정, 없는 회원은 새로 저장한다.
+          영속성 컨텍스트를 비우는 조건은 saveAllBatched 와 같다.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BulkWriteResult upsertByUsername(Iterable<MemberUpsertDto> rows) {
+        boolean clear = !TransactionSynchronizationManager.isActualTransactionActive();
+        return writeTransaction.execute(status -> {
+            BulkWriteCounter counter = new BulkWriteCounter();
+            List<MemberUpsertDto> batch = new ArrayList<>(bulkBatchSize);
+            for (MemberUpsertDto row : rows) {
+                batch.add(row);
+                if (batch.size() == bulkBatchSize) {
+                    upsertBatch(batch, counter, clear);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                upsertBatch(batch, counter, clear);
+            }
+            return counter.toResult();
+        });
     }
 
-    private BooleanExpression teamNameEqual(String teamName) {
-        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    private void saveBatch(List<Member> batch, BulkWriteCounter counter, boolean clear) {
+        long start = System.nanoTime();
+        useJdbcBatch();
+
+        Set<Long> existingIds = new LinkedHashSet<>();
+        for (Member m : batch) {
+            if (m.getId() != null) {
+                existingIds.add(m.getId());
+            }
+        }
+        Map<Long, Member> managed = new HashMap<>();
+        if (!existingIds.isEmpty()) {
+            queryFactory
+                    .selectFrom(member)
+                    .where(member.id.in(existingIds))
+                    .fetch()
+                    .forEach(found -> managed.put(found.getId(), found));
+        }
+
+        Map<Long, Team> teams = new HashMap<>();
+        for (Member m : batch) {
+            Team teamRef = teamReference(m.getTeam(), teams);
+            Member target = m.getId() != null ? managed.get(m.getId()) : null;
+            if (target != null) {
+                target.setUsername(m.getUsername());
+                target.setAge(m.getAge());
+                target.setTeam(teamRef);
+                counter.updated++;
+            } else if (m.getId() != null) {
+                /* id 는 있지만 DB 에 없는 회원은 기존 save() 와 동일하게 merge 로 저장한다. */
+                m.setTeam(teamRef);
+                em.merge(m);
+                counter.inserted++;
+            } else {
+                m.setTeam(teamRef);
+                em.persist(m);
+                counter.inserted++;
+            }
+        }
+
+        em.flush();
+        if (clear) {
+            em.clear();
+        }
+        counter.batchDone(batch.size(), start);
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    private Team teamReference(Team team, Map<Long, Team> teams) {
+        if (team == null) {
+            return null;
+        }
+        if (team.getId() == null) {
+            em.persist(team);
+            teams.put(team.getId(), team);
+            return team;
+        }
+        return teams.computeIfAbsent(team.getId(), id -> em.getReference(Team.class, id));
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    private void upsertBatch(List<MemberUpsertDto> batch, BulkWriteCounter counter, boolean clear) {
+        long start = System.nanoTime();
+        useJdbcBatch();
+
+        Set<String> teamNames = new LinkedHashSet<>();
+        Set<String> usernames = new LinkedHashSet<>();
+        for (MemberUpsertDto row : batch) {
+            if (StringUtils.hasText(row.getTeamName())) {
+                teamNames.add(row.getTeamName());
+            }
+            usernames.add(row.getUsername());
+        }
+
+        Map<String, Team> teams = new HashMap<>();
+        if (!teamNames.isEmpty()) {
+            queryFactory
+                    .selectFrom(team)
+                    .where(team.name.in(teamNames))
+                    .fetch()
+                    .forEach(found -> teams.putIfAbsent(found.getName(), found));
+        }
+        Map<String, Member> members = new HashMap<>();
+        queryFactory
+                .selectFrom(member)
+                .where(member.username.in(usernames))
+                .fetch()
+                .forEach(found -> members.putIfAbsent(found.getUsername(), found));
+
+        for (MemberUpsertDto row : batch) {
+            Team rowTeam = StringUtils.hasText(row.getTeamName())
+                    ? teams.computeIfAbsent(row.getTeamName(), this::persistTeam)
+                    : null;
+
+            Member existing = members.get(row.getUsername());
+            if (existing != null) {
+                existing.setAge(row.getAge());
+                existing.setTeam(rowTeam);
+                counter.updated++;
+            } else {
+                Member created = new Member(row.getUsername(), row.getAge());
+                created.setTeam(rowTeam);
+                em.persist(created);
+                members.put(created.getUsername(), created);
+                counter.inserted++;
+            }
+        }
+
+        em.flush();
+        if (clear) {
+            em.clear();
+        }
+        counter.batchDone(batch.size(), start);
+    }
+
+    private Team persistTeam(String name) {
+        Team created = new Team(name);
+        em.persist(created);
+        return created;
+    }
+
+    private void useJdbcBatch() {
+        em.unwrap(Session.class).setJdbcBatchSize(bulkBatchSize);
+    }
+
+    private static class BulkWriteCounter {
+        private long inserted;
+        private long updated;
+        private final List<BulkWriteResult.BatchTiming> batches = new ArrayList<>();
+
+        void batchDone(int rows, long startNanos) {
+            batches.add(new BulkWriteResult.BatchTiming(rows, (System.nanoTime() - startNanos) / 1_000_000));
+        }
+
+        BulkWriteResult toResult() {
+            return new BulkWriteResult(inserted, updated, batches);
+        }
     }
 }
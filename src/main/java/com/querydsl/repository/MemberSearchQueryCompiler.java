@@ -0,0 +1,319 @@
+package com.querydsl.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.dto.MemberField;
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.dto.UsernameMatch;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static com.querydsl.entity.QMember.member;
+import static com.querydsl.entity.QTeam.team;
+
+/*
+    회원 검색 쿼리 컴파일러
+    : 검색 조건은 "어떤 조건이 들어왔는지" 에 따라 몇 가지 모양(shape)으로만 나뉜다.
+      shape 별로 값 자리를 Param 으로 비워둔 쿼리를 한 번만 만들어서 JPQL 문자열로 직렬화해 두고,
+      요청마다 문자열을 새로 만들지 않고 파라미터만 바인딩해서 실행한다.
+      → 요청마다 BooleanExpression 트리 / JPQL 을 다시 만드는 CPU 를 아끼고,
+        같은 shape 은 항상 같은 JPQL 이므로 Hibernate 쿼리 플랜 캐시와 PreparedStatement 캐시가 적중한다.
+
+    content 쿼리는 페이징 결과가 항상 같은 순서가 되도록 member.id 로 정렬한다.
+    username 은 EXACT / PREFIX / CONTAINS 검색 방식에 따라 다른 shape 이 된다.
+    teamName 은 TeamNameDictionary 로 팀 id 를 찾을 수 있으면 member.team.id in (?) 로 바꿔서 team 조인을 피한다.
+    사전을 다시 읽는 중이거나 사전에 없는 이름이면 그대로 team.name = ? (team 조인)으로 검색한다.
+    (팀 id 를 찾으려고 SQL 을 한 번 더 실행하면 조인 하나를 아끼려고 왕복이 늘고 엔드포인트의 SQL 수 제한도 넘는다.)
+    (사전은 커밋된 팀만 알고 있으므로 쓰기 트랜잭션 안에서는 이번 트랜잭션에서 바꾼 팀도 보이도록 team 조인으로 검색한다.)
+    content 쿼리는 condition.fields 로 요청한 컬럼만 조회하고, teamName 을 조회하지 않으면 team 조인도 하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchQueryCompiler {
+
+    private static final Param<String> USERNAME = new Param<>(String.class, "username");
+    private static final Param<String> TEAM_NAME = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+    private static final Param<Long> LAST_MEMBER_ID = new Param<>(Long.class, "lastMemberId");
+    private static final Param<String> USERNAME_PATTERN = new Param<>(String.class, "usernamePattern");
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Param<Collection<Long>> TEAM_IDS = new Param(Collection.class, "teamIds");
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Param<Collection<Long>> MEMBER_IDS = new Param(Collection.class, "memberIds");
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private static final int HAS_USERNAME = 1;
+    private static final int HAS_TEAM_NAME = 1 << 1;
+    private static final int HAS_AGE_GOE = 1 << 2;
+    private static final int HAS_AGE_LOE = 1 << 3;
+    private static final int HAS_LAST_MEMBER_ID = 1 << 4;
+    private static final int HAS_TEAM_IDS = 1 << 5;
+    private static final int HAS_USERNAME_LIKE = 1 << 6;
+    private static final int HAS_MEMBER_IDS = 1 << 7;
+    private static final int HAS_NO_MATCH = 1 << 8;
+
+    private enum Kind {
+        CONTENT, COUNT, IDS
+    }
+
+    private final EntityManager em;
+    private final TeamNameDictionary teamNameDictionary;
+    private final UsernameTrigramIndex usernameTrigramIndex;
+    private final Map<Integer, CompiledQuery> compiledQueries = new ConcurrentHashMap<>();
+
+    public List<MemberTeamDto> fetchContent(MemberSearchCondition condition) {
+        return toDtos(fields(condition), contentQuery(condition, null).getResultList());
+    }
+
+    public List<MemberTeamDto> fetchContent(MemberSearchCondition condition, long offset, int limit) {
+        Query query = contentQuery(condition, null)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit);
+        return toDtos(fields(condition), query.getResultList());
+    }
+
+    /* keyset 페이징 : lastMemberId 다음 row 부터 limit 개 */
+    public List<MemberTeamDto> fetchContentAfter(MemberSearchCondition condition, Long lastMemberId, int limit) {
+        Query query = contentQuery(condition, lastMemberId)
+                .setMaxResults(limit);
+        return toDtos(fields(condition), query.getResultList());
+    }
+
+    /* 커서로 읽어오므로 반드시 트랜잭션 안에서 사용하고 close 해야 한다. */
+    public Stream<MemberTeamDto> streamContent(MemberSearchCondition condition, int fetchSize) {
+        Stream<?> rows = contentQuery(condition, null)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .getResultStream();
+        int fields = fields(condition);
+        TeamValueInterner interner = new TeamValueInterner();
+        return rows.map(row -> toDto(interner, fields, row));
+    }
+
+    public long count(MemberSearchCondition condition) {
+        return (Long) bind(Kind.COUNT, condition, null)
+                .getSingleResult();
+    }
+
+    /*
+        주어진 session(다른 커넥션)에서 센다. (MemberParallelCounter)
+        : 팀 이름은 다른 검색과 같이 사전으로만 바꾸고, 사전에 없으면 team 조인으로 센다.
+     */
+    public long count(MemberSearchCondition condition, EntityManager session) {
+        return (Long) bind(Kind.COUNT, condition, null, session)
+                .getSingleResult();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Long> fetchIds(MemberSearchCondition condition, long offset, int limit) {
+        return bind(Kind.IDS, condition, null)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /* 지금까지 컴파일된 쿼리 수 (kind x shape) */
+    public int compiledCount() {
+        return compiledQueries.size();
+    }
+
+    private Query contentQuery(MemberSearchCondition condition, Long lastMemberId) {
+        return bind(Kind.CONTENT, condition, lastMemberId);
+    }
+
+    private Query bind(Kind kind, MemberSearchCondition condition, Long lastMemberId) {
+        return bind(kind, condition, lastMemberId, null);
+    }
+
+    /* 검색 조건에서 shape 와 바인딩할 값을 함께 구한다. session 이 null 이면 현재 트랜잭션의 EntityManager 를 쓴다. */
+    private Query bind(Kind kind, MemberSearchCondition condition, Long lastMemberId, EntityManager session) {
+        int shape = 0;
+        Map<Param<?>, Object> values = new HashMap<>();
+        if (StringUtils.hasText(condition.getUsername())) {
+            shape |= usernameShape(condition.getUsername(), condition.getUsernameMatch(), values);
+        }
+        if (StringUtils.hasText(condition.getTeamName())) {
+            Optional<List<Long>> teamIds = resolveTeamIds(condition.getTeamName());
+            if (teamIds.isPresent()) {
+                shape |= HAS_TEAM_IDS;
+                values.put(TEAM_IDS, teamIds.get());
+            } else {
+                shape |= HAS_TEAM_NAME;
+                values.put(TEAM_NAME, condition.getTeamName());
+            }
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= HAS_AGE_GOE;
+            values.put(AGE_GOE, condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= HAS_AGE_LOE;
+            values.put(AGE_LOE, condition.getAgeLoe());
+        }
+        if (lastMemberId != null) {
+            shape |= HAS_LAST_MEMBER_ID;
+            values.put(LAST_MEMBER_ID, lastMemberId);
+        }
+        int fields = kind == Kind.CONTENT ? fields(condition) : 0;
+        return compiled(kind, shape, fields).bind(values, session != null ? session : em);
+    }
+
+    /*
+        PREFIX   : username like 'x%'  → username 인덱스 범위 조회
+        CONTAINS : username like '%x%' → 3-gram 색인으로 후보 id 를 구할 수 있으면 member.id in (후보) 를 함께 건다.
+                   색인은 flush 된 회원만 알고 있으므로 쓰기 트랜잭션 안에서는 flush 하지 않고 like 만으로 검색한다.
+     */
+    private int usernameShape(String username, UsernameMatch match, Map<Param<?>, Object> values) {
+        switch (match) {
+            case PREFIX:
+                values.put(USERNAME_PATTERN, escapeLike(username) + "%");
+                return HAS_USERNAME_LIKE;
+            case CONTAINS:
+                values.put(USERNAME_PATTERN, "%" + escapeLike(username) + "%");
+                if (isWritableTransaction()) {
+                    return HAS_USERNAME_LIKE;
+                }
+                Optional<Collection<Long>> candidates = usernameTrigramIndex.candidates(username);
+                if (candidates.isEmpty()) {
+                    return HAS_USERNAME_LIKE;
+                }
+                if (candidates.get().isEmpty()) {
+                    return HAS_USERNAME_LIKE | HAS_NO_MATCH;
+                }
+                values.put(MEMBER_IDS, candidates.get());
+                return HAS_USERNAME_LIKE | HAS_MEMBER_IDS;
+            case EXACT:
+            default:
+                values.put(USERNAME, username);
+                return HAS_USERNAME;
+        }
+    }
+
+    static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private Optional<List<Long>> resolveTeamIds(String teamName) {
+        if (isWritableTransaction()) {
+            return Optional.empty();
+        }
+        return teamNameDictionary.resolve(teamName);
+    }
+
+    private static boolean isWritableTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static int fields(MemberSearchCondition condition) {
+        return MemberField.mask(condition.getFields());
+    }
+
+    private CompiledQuery compiled(Kind kind, int shape, int fields) {
+        return compiledQueries.computeIfAbsent(fields << 20 | kind.ordinal() << 16 | shape,
+                key -> compile(kind, shape, fields));
+    }
+
+    private CompiledQuery compile(Kind kind, int shape, int fields) {
+        JPAQuery<?> template = new JPAQuery<Void>()
+                .select(projection(kind, fields))
+                .from(member);
+        /*
+            team.name = ? 조건은 팀이 없는 회원을 어차피 걸러내므로 inner join 으로 바꿔서 DB 가 team 부터 읽을 수 있게 한다.
+            그 외에는 left join 해두고, 팀 이름을 조회하지 않는 쿼리(count 등)에서는 JoinPruner 가 지운다.
+            (member.team.id 는 FK 컬럼이라 조인 불필요)
+         */
+        if ((shape & HAS_TEAM_NAME) != 0) {
+            template.join(member.team, team);
+        } else {
+            template.leftJoin(member.team, team);
+        }
+        template.where(
+                (shape & HAS_LAST_MEMBER_ID) != 0 ? member.id.gt(LAST_MEMBER_ID) : null,
+                (shape & HAS_NO_MATCH) != 0 ? member.id.isNull() : null,
+                (shape & HAS_MEMBER_IDS) != 0 ? Expressions.booleanTemplate("{0} in {1}", member.id, MEMBER_IDS) : null,
+                (shape & HAS_USERNAME) != 0 ? member.username.eq(USERNAME) : null,
+                (shape & HAS_USERNAME_LIKE) != 0 ? member.username.like(USERNAME_PATTERN, LIKE_ESCAPE) : null,
+                (shape & HAS_TEAM_NAME) != 0 ? team.name.eq(TEAM_NAME) : null,
+                (shape & HAS_TEAM_IDS) != 0 ? Expressions.booleanTemplate("{0} in {1}", member.team.id, TEAM_IDS) : null,
+                (shape & HAS_AGE_GOE) != 0 ? member.age.goe(AGE_GOE) : null,
+                (shape & HAS_AGE_LOE) != 0 ? member.age.loe(AGE_LOE) : null
+        );
+        if (kind != Kind.COUNT) {
+            template.orderBy(member.id.asc());
+        }
+
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(JoinPruner.prune(template.getMetadata()), false, null);
+        return new CompiledQuery(serializer.toString(), new ArrayList<>(serializer.getConstants()));
+    }
+
+    private static Expression<?>[] projection(Kind kind, int fields) {
+        switch (kind) {
+            case COUNT:
+                return new Expression<?>[]{member.count()};
+            case IDS:
+                return new Expression<?>[]{member.id};
+            case CONTENT:
+            default:
+                return MemberTeamProjection.columns(fields).toArray(new Expression<?>[0]);
+        }
+    }
+
+    private static List<MemberTeamDto> toDtos(int fields, List<?> rows) {
+        TeamValueInterner interner = new TeamValueInterner();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(toDto(interner, fields, row));
+        }
+        return result;
+    }
+
+    /* 컬럼이 하나면 Object[] 가 아니라 값 자체가 row 로 온다. */
+    private static MemberTeamDto toDto(TeamValueInterner interner, int fields, Object row) {
+        return MemberTeamProjection.toDto(interner, fields, row instanceof Object[] ? (Object[]) row : new Object[]{row});
+    }
+
+    @RequiredArgsConstructor
+    private class CompiledQuery {
+        private final String jpql;
+        /* 직렬화 순서대로의 바인딩 값. Param 자리는 요청마다 값을 채운다. */
+        private final List<Object> constants;
+
+        Query bind(Map<Param<?>, Object> paramValues, EntityManager entityManager) {
+            Query query = entityManager.createQuery(jpql);
+            for (int i = 0; i < constants.size(); i++) {
+                Object constant = constants.get(i);
+                query.setParameter(i + 1, constant instanceof Param ? paramValues.get(constant) : constant);
+            }
+            return query;
+        }
+    }
+}
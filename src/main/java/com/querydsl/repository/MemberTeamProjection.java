@@ -0,0 +1,90 @@
+package com.querydsl.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.dto.MemberField;
+import com.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.querydsl.entity.QMember.member;
+import static com.querydsl.entity.QTeam.team;
+
+/*
+    Projections.constructor(MemberTeamDto.class, ...) 대신 쓰는 projection
+    : 리플렉션으로 생성자를 찾지 않고, 같은 팀의 값은 TeamValueInterner 로 한 인스턴스만 쓴다.
+      fields(MemberField 비트) 로 요청한 컬럼만 조회하고 나머지는 null 로 둔다.
+      teamId 는 member.team.id(FK 컬럼)로 조회하므로 teamName 을 조회할 때만 team 조인이 필요하다.
+      내부에 상태가 있으므로 쿼리마다 새로 만든다.
+ */
+class MemberTeamProjection extends FactoryExpressionBase<MemberTeamDto> {
+
+    private final int fields;
+    private final List<Expression<?>> args;
+    private final TeamValueInterner interner = new TeamValueInterner();
+
+    MemberTeamProjection() {
+        this(MemberField.ALL);
+    }
+
+    MemberTeamProjection(int fields) {
+        super(MemberTeamDto.class);
+        this.fields = fields;
+        this.args = columns(fields);
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    public MemberTeamDto newInstance(Object... values) {
+        return toDto(interner, fields, values);
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    static List<Expression<?>> columns(int fields) {
+        List<Expression<?>> columns = new ArrayList<>(MemberField.values().length);
+        for (MemberField field : MemberField.values()) {
+            if (field.in(fields)) {
+                columns.add(column(field));
+            }
+        }
+        return columns;
+    }
+
+    /* columns(fields) 순서대로 들어온 값을 MemberTeamDto 로 만든다. */
+    static MemberTeamDto toDto(TeamValueInterner interner, int fields, Object[] values) {
+        Object[] all = new Object[MemberField.values().length];
+        int index = 0;
+        for (MemberField field : MemberField.values()) {
+            if (field.in(fields)) {
+                all[field.ordinal()] = values[index++];
+            }
+        }
+        return interner.toDto((Long) all[0], (String) all[1], (Integer) all[2], (Long) all[3], (String) all[4]);
+    }
+
+    private static Expression<?> column(MemberField field) {
+        switch (field) {
+            case MEMBER_ID:
+                return member.id;
+            case USERNAME:
+                return member.username;
+            case AGE:
+                return member.age;
+            case TEAM_ID:
+                return member.team.id;
+            case TEAM_NAME:
+            default:
+                return team.name;
+        }
+    }
+}
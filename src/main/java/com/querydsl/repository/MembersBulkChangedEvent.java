@@ -0,0 +1,18 @@
+package com.querydsl.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/*
+    벌크 update / delete 로 회원이 바뀌었을 때 발행하는 스프링 이벤트 (청크 하나가 커밋될 때마다)
+    : 벌크 연산은 Hibernate 엔티티 이벤트가 발생하지 않으므로, 회원 데이터를 메모리에 들고 있는 컴포넌트는 이 이벤트로 갱신한다.
+      트랜잭션 안에서 발행될 수 있으므로 @TransactionalEventListener(fallbackExecution = true) 로 받는다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class MembersBulkChangedEvent {
+    private final List<Long> memberIds;
+    private final boolean deleted;
+}
@@ -0,0 +1,9 @@
+package com.querydsl.repository;
+
+/*
+    청크 단위 벌크 update / delete(MemberBulkOperator) 가 끝났을 때 한 번 발행하는 스프링 이벤트 (중간에 실패해도 발행)
+    : 청크마다 오는 MembersBulkChangedEvent 로는 갱신 비용이 큰 컴포넌트(TeamAgeStatistics)가
+      작업이 끝난 뒤 한 번만 다시 만들 수 있게 한다.
+ */
+public class MembersBulkFinishedEvent {
+}
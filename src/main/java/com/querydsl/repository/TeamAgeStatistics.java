@@ -0,0 +1,355 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.TeamAgeStatsDto;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+    팀별 나이 통계 (count / min / max / sum / avg)
+    : 대시보드가 계속 조회하는 팀별 group by 를 매번 member 전체에 실행하지 않도록 요약을 메모리에 들고 있는다.
+      조회는 팀 수만큼만 일한다.
+
+    - 애플리케이션 시작 시 group by 한 번으로 만들고, 이후 주기적으로(member.team-stats.rebuild-interval) 다시 만들어서 맞춘다.
+    - 회원 저장 / 팀 변경 / 나이 변경 / 삭제는 커밋된 뒤 이전 상태를 빼고 새 상태를 더한다.
+    - 벌크 연산은 이전 상태를 알 수 없으므로 청크마다가 아니라 끝났을 때(MembersBulkFinishedEvent) 한 번 전체를 다시 만든다.
+    - min / max 는 회원이 빠질 때도 구할 수 있도록 팀마다 나이별 인원수(TreeMap)로 들고 있는다.
+
+    다시 만들기와 커밋이 겹쳐도 변경을 두 번 세거나 빠뜨리지 않도록 커밋마다 epoch 를 붙인다.
+    - 커밋 직전(flush 이후)부터 변경을 반영할 때까지 commitLock 의 읽기 락을 잡고, 그 시점의 epoch 를 기록한다.
+    - 다시 만들 때는 쓰기 락을 잡고(= 커밋 중인 트랜잭션이 모두 반영을 끝낸 뒤) epoch 를 올린 다음
+      REPEATABLE READ 트랜잭션에서 스냅샷만 잡고 바로 놓는다. group by 는 그 스냅샷에서 읽는다.
+    - 스냅샷보다 먼저 커밋된 변경(epoch 가 작은 변경)은 이미 group by 결과에 들어 있으므로 새 요약에는 더하지 않고,
+      스냅샷 이후에 커밋된 변경은 모아 두었다가 새 요약으로 바꿀 때 더한다.
+ */
+@Slf4j
+@Component
+public class TeamAgeStatistics implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    /* 반영하지 못한 커밋(락을 놓지 못한 트랜잭션)이 있어도 다시 만들기가 계속 기다리지 않도록 한다. */
+    private static final long REBUILD_LOCK_TIMEOUT_SECONDS = 10;
+
+    private final EntityManagerFactory emf;
+    private final TeamNameDictionary teamNameDictionary;
+
+    private final ReentrantReadWriteLock commitLock = new ReentrantReadWriteLock();
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicBoolean rerunRequested = new AtomicBoolean(false);
+
+    /* 아래 필드는 applyLock 으로 보호한다. */
+    private final Object applyLock = new Object();
+    private volatile Summaries summaries = new Summaries(0, new ConcurrentHashMap<>());
+    private List<Delta> pendingDeltas;
+    private long pendingEpoch;
+
+    public TeamAgeStatistics(EntityManagerFactory emf, TeamNameDictionary teamNameDictionary) {
+        this.emf = emf;
+        this.teamNameDictionary = teamNameDictionary;
+    }
+
+    public List<TeamAgeStatsDto> stats() {
+        List<TeamAgeStatsDto> result = new ArrayList<>();
+        summaries.byTeam.forEach((teamId, summary) -> {
+            TeamAgeStatsDto dto = summary.toDto(teamId, teamNameDictionary.nameOf(teamId).orElse(null));
+            if (dto != null) {
+                result.add(dto);
+            }
+        });
+        result.sort((a, b) -> Long.compare(a.getTeamId(), b.getTeamId()));
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${member.team-stats.rebuild-interval:PT10M}",
+            initialDelayString = "${member.team-stats.rebuild-interval:PT10M}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkFinished(MembersBulkFinishedEvent event) {
+        rebuild();
+    }
+
+    /*
+        이미 다시 만드는 중이면 그 스냅샷이 요청 전에 잡혔을 수 있으므로(ex. 벌크 연산 커밋 직전)
+        rerunRequested 만 남기고, 실행 중인 스레드가 끝난 뒤 한 번 더 만든다.
+     */
+    public void rebuild() {
+        rerunRequested.set(true);
+        while (rerunRequested.get() && rebuilding.compareAndSet(false, true)) {
+            try {
+                rerunRequested.set(false);
+                rebuildOnce();
+            } finally {
+                rebuilding.set(false);
+            }
+        }
+    }
+
+    private void rebuildOnce() {
+        try {
+            Summaries rebuilt = query();
+            if (rebuilt == null) {
+                return;
+            }
+            synchronized (applyLock) {
+                pendingDeltas.forEach(rebuilt::apply);
+                summaries = rebuilt;
+                pendingDeltas = null;
+            }
+        } catch (RuntimeException e) {
+            synchronized (applyLock) {
+                pendingDeltas = null;
+            }
+            throw e;
+        }
+    }
+
+    /* 스냅샷을 잡지 못하면(커밋 중인 트랜잭션이 락을 놓지 않으면) null */
+    private Summaries query() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.unwrap(Session.class).doWork(connection ->
+                    connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ));
+
+            long readEpoch;
+            if (!tryLockForRebuild()) {
+                log.warn("커밋 중인 트랜잭션이 끝나지 않아 팀 나이 통계를 다음 주기에 다시 만듭니다.");
+                return null;
+            }
+            try {
+                readEpoch = epoch.incrementAndGet();
+                synchronized (applyLock) {
+                    pendingDeltas = new ArrayList<>();
+                    pendingEpoch = readEpoch;
+                }
+                /* REPEATABLE READ 는 첫 번째 읽기에서 스냅샷이 정해진다. */
+                em.createQuery("select m.id from Member m", Long.class)
+                        .setMaxResults(1)
+                        .getResultList();
+            } finally {
+                commitLock.writeLock().unlock();
+            }
+
+            List<Object[]> rows = em.createQuery(
+                            "select m.team.id, m.age, count(m) from Member m" +
+                                    " where m.team is not null group by m.team.id, m.age", Object[].class)
+                    .getResultList();
+            em.getTransaction().commit();
+
+            Map<Long, AgeSummary> rebuilt = new ConcurrentHashMap<>();
+            for (Object[] row : rows) {
+                rebuilt.computeIfAbsent((Long) row[0], id -> new AgeSummary())
+                        .add((Integer) row[1], (Long) row[2]);
+            }
+            return new Summaries(readEpoch, rebuilt);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private boolean tryLockForRebuild() {
+        try {
+            return commitLock.writeLock().tryLock(REBUILD_LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            applyAfterCommit(event.getSession(), null, snapshot(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member && event.getOldState() != null) {
+            applyAfterCommit(event.getSession(),
+                    snapshot(event.getPersister(), event.getOldState()), snapshot(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            applyAfterCommit(event.getSession(), snapshot(event.getPersister(), event.getDeletedState()), null);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /* flush 시점에 이전 / 새 상태를 잡아 두고, 커밋 직전에 epoch 를 기록한 뒤 커밋되면 반영한다. */
+    private void applyAfterCommit(EventSource session, MemberSnapshot before, MemberSnapshot after) {
+        CommitTicket ticket = new CommitTicket();
+        session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) s -> {
+            commitLock.readLock().lock();
+            ticket.locked = true;
+            ticket.epoch = epoch.get();
+        });
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> {
+            if (!ticket.locked) {
+                return;
+            }
+            try {
+                if (success) {
+                    apply(new Delta(ticket.epoch, before, after));
+                }
+            } finally {
+                commitLock.readLock().unlock();
+            }
+        });
+    }
+
+    private void apply(Delta delta) {
+        synchronized (applyLock) {
+            if (pendingDeltas != null && delta.epoch >= pendingEpoch) {
+                pendingDeltas.add(delta);
+            }
+            summaries.apply(delta);
+        }
+    }
+
+    private static MemberSnapshot snapshot(EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return null;
+        }
+        Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        Integer age = (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+        return new MemberSnapshot(teamId(team), age);
+    }
+
+    /* 프록시를 초기화하지 않고 id 만 꺼낸다. */
+    private static Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+
+    private static class MemberSnapshot {
+        private final Long teamId;
+        private final int age;
+
+        MemberSnapshot(Long teamId, Integer age) {
+            this.teamId = teamId;
+            this.age = age != null ? age : 0;
+        }
+    }
+
+    private static class Delta {
+        private final long epoch;
+        private final MemberSnapshot before;
+        private final MemberSnapshot after;
+
+        Delta(long epoch, MemberSnapshot before, MemberSnapshot after) {
+            this.epoch = epoch;
+            this.before = before;
+            this.after = after;
+        }
+    }
+
+    private static class CommitTicket {
+        private boolean locked;
+        private long epoch;
+    }
+
+    /* epoch 시점의 스냅샷으로 만든 요약. 그보다 먼저 커밋된 변경은 이미 들어 있다. */
+    private static class Summaries {
+        private final long epoch;
+        private final Map<Long, AgeSummary> byTeam;
+
+        Summaries(long epoch, Map<Long, AgeSummary> byTeam) {
+            this.epoch = epoch;
+            this.byTeam = byTeam;
+        }
+
+        void apply(Delta delta) {
+            if (delta.epoch < epoch) {
+                return;
+            }
+            if (delta.before != null && delta.before.teamId != null) {
+                AgeSummary summary = byTeam.get(delta.before.teamId);
+                if (summary != null) {
+                    summary.add(delta.before.age, -1);
+                }
+            }
+            if (delta.after != null && delta.after.teamId != null) {
+                byTeam.computeIfAbsent(delta.after.teamId, id -> new AgeSummary()).add(delta.after.age, 1);
+            }
+        }
+    }
+
+    /* 팀 하나의 나이 요약 */
+    private static class AgeSummary {
+        private final TreeMap<Integer, Long> countByAge = new TreeMap<>();
+        private long count;
+        private long sum;
+
+        synchronized void add(int age, long members) {
+            long remaining = countByAge.merge(age, members, Long::sum);
+            if (remaining <= 0) {
+                countByAge.remove(age);
+            }
+            count += members;
+            sum += (long) age * members;
+        }
+
+        /* 회원이 없으면 null */
+        synchronized TeamAgeStatsDto toDto(Long teamId, String teamName) {
+            if (count <= 0 || countByAge.isEmpty()) {
+                return null;
+            }
+            return new TeamAgeStatsDto(teamId, teamName, count,
+                    countByAge.firstKey(), countByAge.lastKey(), sum, (double) sum / count);
+        }
+    }
+}
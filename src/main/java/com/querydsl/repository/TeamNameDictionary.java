@@ -0,0 +1,250 @@
+package com.querydsl.repository;
+
+import com.querydsl.entity.Team;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/*
+    팀 이름 → 팀 id 사전
+    : teamName 조건을 team.name = ? (team 조인 필요) 대신 member.team.id in (?) 로 바꿔서
+      팀 컬럼을 조회하지 않는 쿼리(count 등)는 team 조인 없이 member 테이블만 읽게 한다.
+
+    - 애플리케이션 시작 시 전체를 읽어오고, Team 이 저장 / 수정 / 삭제되면 커밋 이후(POST_COMMIT_*)에 반영한다.
+      커밋되지 않은 변경은 다른 트랜잭션에 보이지 않고, 롤백되면 사전도 바뀌지 않는다.
+      (이번 트랜잭션에서 바꾼 팀은 아직 사전에 없으므로 쓰기 트랜잭션에서는 MemberSearchQueryCompiler 가 사전을 쓰지 않는다.)
+    - 다른 인스턴스나 Hibernate 를 거치지 않는 SQL(벌크 연산 포함)로 바뀐 팀은 이벤트가 없으므로
+      reload-interval 마다 전체를 다시 읽어서 반영한다.
+      마지막으로 다시 읽은 지 max-staleness 가 지났으면 예전 id 로 다른 팀의 회원을 찾지 않도록 사전을 쓰지 않는다.
+    - 사전을 다시 읽어오는 중이거나 모르는 이름이면 Optional.empty() 를 돌려주고,
+      호출하는 쪽은 기존처럼 team 조인으로 검색한다.
+ */
+@Slf4j
+@Component
+public class TeamNameDictionary
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    /* 다시 읽기는 요청 스레드를 막지 않도록 전용 스레드 하나에서만 실행한다. */
+    private final ThreadPoolTaskExecutor reloadExecutor;
+
+    private volatile Index index = new Index();
+
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private final AtomicBoolean reloading = new AtomicBoolean(false);
+    private final AtomicLong version = new AtomicLong();
+
+    private final long maxStalenessNanos;
+    /* 마지막으로 성공한 전체 읽기를 시작한 시각 (System.nanoTime) */
+    private volatile long loadedAt;
+
+    public TeamNameDictionary(
+            EntityManagerFactory emf,
+            @Value("${member.search.team-dictionary.max-staleness:2m}") Duration maxStaleness) {
+        this.emf = emf;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+
+        reloadExecutor = new ThreadPoolTaskExecutor();
+        reloadExecutor.setCorePoolSize(1);
+        reloadExecutor.setMaxPoolSize(1);
+        reloadExecutor.setQueueCapacity(1);
+        reloadExecutor.setThreadNamePrefix("team-name-dictionary-");
+        reloadExecutor.setDaemon(true);
+        reloadExecutor.initialize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${member.search.team-dictionary.reload-interval:PT1M}",
+            initialDelayString = "${member.search.team-dictionary.reload-interval:PT1M}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    public Optional<List<Long>> resolve(String teamName) {
+        if (dirty.get() || System.nanoTime() - loadedAt > maxStalenessNanos) {
+            reloadAsync();
+            return Optional.empty();
+        }
+        Set<Long> ids = index.idsByName.get(teamName);
+        if (ids == null || ids.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new ArrayList<>(ids));
+    }
+
+    /* 사전을 다시 읽는 중이어도 마지막으로 알고 있는 이름을 돌려준다. */
+    public Optional<String> nameOf(Long teamId) {
+        return Optional.ofNullable(index.nameById.get(teamId));
+    }
+
+    public void reload() {
+        if (!reloading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startVersion = version.get();
+            long start = System.nanoTime();
+            dirty.set(false);
+
+            EntityManager em = emf.createEntityManager();
+            List<Object[]> rows;
+            try {
+                rows = em.createQuery("select t.id, t.name from Team t", Object[].class).getResultList();
+            } finally {
+                em.close();
+            }
+
+            Index loaded = new Index();
+            for (Object[] row : rows) {
+                loaded.put((Long) row[0], (String) row[1]);
+            }
+            synchronized (this) {
+                index = loaded;
+            }
+            loadedAt = start;
+
+            /* 읽어오는 동안 변경이 있었다면 그 변경이 빠졌을 수 있다. */
+            if (version.get() != startVersion) {
+                dirty.set(true);
+            }
+        } catch (RuntimeException e) {
+            dirty.set(true);
+            log.warn("팀 이름 사전을 읽어오지 못했습니다.", e);
+        } finally {
+            reloading.set(false);
+        }
+    }
+
+    private void reloadAsync() {
+        if (reloading.get()) {
+            return;
+        }
+        try {
+            reloadExecutor.execute(this::reload);
+        } catch (TaskRejectedException e) {
+            /* 이미 다시 읽기가 대기 중이다. */
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloadExecutor.shutdown();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Team) {
+            Long id = (Long) event.getId();
+            String name = name(event.getPersister(), event.getState());
+            changed(current -> current.put(id, name));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Team) {
+            Long id = (Long) event.getId();
+            String name = name(event.getPersister(), event.getState());
+            changed(current -> {
+                current.remove(id);
+                current.put(id, name);
+            });
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Team) {
+            Long id = (Long) event.getId();
+            changed(current -> current.remove(id));
+        }
+    }
+
+    /* 롤백되면 사전에 반영한 것이 없으므로 할 일이 없다. */
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+
+    /* 커밋 이후에는 엔티티가 다시 바뀌었을 수 있으므로 flush 할 때의 상태에서 이름을 읽는다. */
+    private static String name(EntityPersister persister, Object[] state) {
+        return (String) state[persister.getEntityMetamodel().getPropertyIndex("name")];
+    }
+
+    private void changed(Consumer<Index> change) {
+        version.incrementAndGet();
+        synchronized (this) {
+            change.accept(index);
+        }
+    }
+
+    /* 전체를 다시 읽어올 때는 새 Index 를 만들어서 한 번에 교체한다. */
+    private static class Index {
+        private final Map<String, Set<Long>> idsByName = new ConcurrentHashMap<>();
+        private final Map<Long, String> nameById = new ConcurrentHashMap<>();
+
+        void put(Long id, String name) {
+            if (name == null) {
+                return;
+            }
+            nameById.put(id, name);
+            idsByName.computeIfAbsent(name, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+
+        void remove(Long id) {
+            String oldName = nameById.remove(id);
+            if (oldName == null) {
+                return;
+            }
+            Set<Long> ids = idsByName.get(oldName);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    idsByName.remove(oldName);
+                }
+            }
+        }
+    }
+}
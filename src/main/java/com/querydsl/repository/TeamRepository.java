@@ -0,0 +1,23 @@
+package com.querydsl.repository;
+
+import com.querydsl.entity.Team;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
+
+    String TEAM_BY_NAME_REGION = "team-by-name";
+
+    /*
+        쿼리 캐시 : Team 테이블이 바뀌기 전까지는 같은 이름으로 다시 조회해도 DB 에 가지 않는다.
+        (회원 검색의 teamName 조건은 이 쿼리를 쓰지 않고 TeamNameDictionary 또는 team 조인으로 처리한다.)
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = TEAM_BY_NAME_REGION)
+    })
+    List<Team> findByName(String name);
+}
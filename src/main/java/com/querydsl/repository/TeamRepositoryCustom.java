@@ -0,0 +1,9 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.TeamMembersDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface TeamRepositoryCustom {
+    Page<TeamMembersDto> searchTeamsWithMembers(Pageable pageable);
+}
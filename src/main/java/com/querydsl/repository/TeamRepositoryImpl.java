@@ -0,0 +1,66 @@
+package com.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.dto.MemberDto;
+import com.querydsl.dto.TeamMembersDto;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.querydsl.entity.QMember.member;
+import static com.querydsl.entity.QTeam.team;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final JPAQueryFactory queryFactory;
+
+    /*
+        팀 + 소속 회원 페이징
+        : team.members 를 fetch join 하고 페이징하면 limit 이 DB 가 아닌 메모리에서 적용된다. (HHH000104)
+          그렇다고 fetch join 을 빼면 팀마다 members 를 따로 조회한다. (N+1)
+          → (1) 팀만 페이징해서 조회하고 (2) 그 팀들의 회원을 in 쿼리 한 번으로 조회해서 DTO 로 조립한다.
+            쿼리 수는 페이지 크기와 상관없이 content 2번 + count 1번이고, 엔티티를 영속성 컨텍스트에 올리지 않는다.
+     */
+    @Override
+    public Page<TeamMembersDto> searchTeamsWithMembers(Pageable pageable) {
+        List<Tuple> teams = queryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        Map<Long, TeamMembersDto> content = new LinkedHashMap<>();
+        for (Tuple row : teams) {
+            Long teamId = row.get(team.id);
+            content.put(teamId, new TeamMembersDto(teamId, row.get(team.name), new ArrayList<>()));
+        }
+
+        if (!content.isEmpty()) {
+            List<Tuple> members = queryFactory
+                    .select(member.team.id, member.username, member.age)
+                    .from(member)
+                    .where(member.team.id.in(content.keySet()))
+                    .orderBy(member.team.id.asc(), member.id.asc())
+                    .fetch();
+
+            for (Tuple row : members) {
+                content.get(row.get(member.team.id))
+                        .getMembers()
+                        .add(new MemberDto(row.get(member.username), row.get(member.age)));
+            }
+        }
+
+        return PageableExecutionUtils.getPage(new ArrayList<>(content.values()), pageable,
+                () -> queryFactory.select(team.count()).from(team).fetchOne());
+    }
+}
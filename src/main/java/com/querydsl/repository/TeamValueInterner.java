@@ -0,0 +1,30 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.MemberTeamDto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+    한 번의 조회 결과 안에서 같은 팀의 teamId / teamName 을 같은 인스턴스로 맞춘다.
+    : 한 페이지가 몇 개의 팀에 몰려 있으므로 row 마다 읽어온 팀 이름 문자열은 바로 버려지고,
+      응답이 끝날 때까지 힙에 남는 팀 값은 팀 수만큼만 남는다.
+      조회 한 번(또는 stream 하나)에만 쓰고 버린다.
+ */
+class TeamValueInterner {
+
+    private final Map<Long, MemberTeamDto> firstRowByTeam = new HashMap<>();
+
+    MemberTeamDto toDto(Long memberId, String username, Integer age, Long teamId, String teamName) {
+        if (teamId == null) {
+            return new MemberTeamDto(memberId, username, age, null, teamName);
+        }
+        MemberTeamDto first = firstRowByTeam.get(teamId);
+        if (first == null) {
+            MemberTeamDto dto = new MemberTeamDto(memberId, username, age, teamId, teamName);
+            firstRowByTeam.put(teamId, dto);
+            return dto;
+        }
+        return new MemberTeamDto(memberId, username, age, first.getTeamId(), first.getTeamName());
+    }
+}
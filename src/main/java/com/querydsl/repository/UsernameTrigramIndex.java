@@ -0,0 +1,350 @@
+package com.querydsl.repository;
+
+import com.querydsl.entity.Member;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/*
+    username 3-gram 색인 (trigram → member id)
+    : username like '%검색어%' 는 인덱스를 쓸 수 없어서 member 전체를 읽는다.
+      검색어의 3-gram 을 모두 가진 회원 id 를 메모리에서 먼저 구하고, DB 에는 member.id in (후보) 로 PK 조회만 시킨다.
+      (후보에는 3-gram 은 모두 있지만 연속되지 않은 경우가 섞여 있으므로 like 조건은 그대로 함께 건다.)
+
+    - 애플리케이션 시작 시 전체를 읽어오고, 이후에는 reconcile-interval 마다 id 순서로 reconcile-batch-size 명씩 다시 읽는다.
+      (매번 전체를 읽지 않도록 나눠 읽고, 끝까지 읽으면 처음부터 다시 시작한다.)
+      다른 인스턴스나 Hibernate 를 거치지 않는 SQL 로 바뀐 이름은 이벤트가 없으므로 이때 반영된다.
+      마지막으로 끝까지 다시 읽은 한 바퀴가 시작된 지 max-staleness 가 지났으면(실패가 이어지는 경우 등) 색인을 쓰지 않는다.
+      (max-staleness 는 회원 수 / reconcile-batch-size x reconcile-interval 보다 길어야 한다.
+       그 안의 외부 변경은 놓칠 수 있으므로 다른 곳에서도 쓰는 DB 라면 0 으로 꺼서 like 만 쓴다.)
+    - 다시 읽을 때는 DB 의 이름과 다르면 그 이름의 3-gram 을 더하기만 하고 빼지는 않는다.
+      flush 되었지만 아직 커밋되지 않은 새 이름의 3-gram 을 지우면, 커밋 이후 예전 이름의 3-gram 까지 빠져서 회원을 찾지 못한다.
+      (남은 3-gram 은 후보를 조금 늘릴 뿐 like 조건에서 걸러진다.)
+    - 추가는 flush 시점(POST_INSERT / POST_UPDATE)에 바로 반영한다.
+      커밋되지 않은 회원이 후보에 섞여도 DB 조회에서 걸러지므로 문제가 없다.
+    - 제거(이름 변경 전 3-gram, 삭제)는 커밋 이후(POST_COMMIT_*)에 반영한다. 롤백되면 예전 이름이 그대로 유효하기 때문이다.
+    - 벌크 연산은 엔티티 이벤트가 없으므로 MembersBulkChangedEvent 로 바뀐 회원만 다시 읽는다.
+    - 3-gram 은 대소문자와 악센트를 없애고 만든다. (DB 의 _ai_ci collation 처럼 'É' 와 'e' 를 같게 본다.)
+      그래도 collation 과 같다고 보장할 수 없는 글자(영문 / 숫자 / 한글 / 공백 / ASCII 기호 외)가 검색어에 있으면 색인을 쓰지 않는다.
+    - 검색어가 3글자 미만이거나, 후보가 maxCandidates 보다 많거나, 색인이 오래되었거나, 아직 읽어오지 못했으면
+      Optional.empty() 를 돌려주고 호출하는 쪽은 like 만으로 검색한다.
+ */
+@Slf4j
+@Component
+public class UsernameTrigramIndex {
+
+    private static final int GRAM = 3;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final EntityManagerFactory emf;
+    private final int maxCandidates;
+    private final long maxStalenessNanos;
+
+    private final Map<String, Set<Long>> idsByGram = new ConcurrentHashMap<>();
+    private final Map<Long, String> usernameById = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    /* 마지막으로 끝까지 다시 읽은 한 바퀴를 시작한 시각 (System.nanoTime) */
+    private volatile long reconciledAt;
+
+    private final int reconcileBatchSize;
+    /* 다음에 다시 읽을 범위의 시작 (이 id 보다 큰 회원부터). 0 이면 처음부터 새 바퀴를 시작한다. (member id 는 1 부터) */
+    private long reconcileAfterId;
+    private long passStartedAt;
+
+    /* flush 시점 추가 */
+    private final Immediate immediate = new Immediate();
+    /* 커밋 이후 제거 */
+    private final AfterCommit afterCommit = new AfterCommit();
+
+    public UsernameTrigramIndex(
+            EntityManagerFactory emf,
+            @Value("${member.search.trigram.max-candidates:1000}") int maxCandidates,
+            @Value("${member.search.trigram.max-staleness:30m}") Duration maxStaleness,
+            @Value("${member.search.trigram.reconcile-batch-size:5000}") int reconcileBatchSize) {
+        this.emf = emf;
+        this.maxCandidates = maxCandidates;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.reconcileBatchSize = reconcileBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reloadAll();
+    }
+
+    @Scheduled(fixedDelayString = "${member.search.trigram.reconcile-interval:PT5S}",
+            initialDelayString = "${member.search.trigram.reconcile-interval:PT5S}")
+    public void reconcile() {
+        try {
+            reconcileNextRange();
+        } catch (RuntimeException e) {
+            log.warn("username trigram 색인을 다시 읽어오지 못했습니다.", e);
+        }
+    }
+
+    /* 다음 reconcileBatchSize 명을 PK 범위로 읽는다. 마지막 범위까지 읽으면 그 바퀴를 시작한 시각을 reconciledAt 으로 남긴다. */
+    private synchronized void reconcileNextRange() {
+        if (reconcileAfterId == 0) {
+            passStartedAt = System.nanoTime();
+        }
+        EntityManager em = emf.createEntityManager();
+        List<Object[]> rows;
+        try {
+            rows = em.createQuery(
+                            "select m.id, m.username from Member m where m.id > :lastId order by m.id", Object[].class)
+                    .setParameter("lastId", reconcileAfterId)
+                    .setMaxResults(reconcileBatchSize)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+        rows.forEach(row -> addIfChanged((Long) row[0], (String) row[1]));
+
+        if (rows.size() < reconcileBatchSize) {
+            reconciledAt = passStartedAt;
+            reconcileAfterId = 0;
+        } else {
+            reconcileAfterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    /* 읽는 동안에도 기존 색인을 그대로 쓰고, 이름이 바뀐 회원의 새 3-gram 만 더한다. */
+    private synchronized void reloadAll() {
+        long start = System.nanoTime();
+        EntityManager em = emf.createEntityManager();
+        try (Stream<Object[]> rows = em.createQuery("select m.id, m.username from Member m", Object[].class)
+                .setHint(org.hibernate.annotations.QueryHints.FETCH_SIZE, 1000)
+                .getResultStream()) {
+            rows.forEach(row -> addIfChanged((Long) row[0], (String) row[1]));
+        } finally {
+            em.close();
+        }
+        reconciledAt = start;
+        ready = true;
+        log.info("username trigram 색인 완료 members={} grams={} elapsedMs={}",
+                usernameById.size(), idsByGram.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /* 검색어를 포함할 수 있는 회원 id. 색인으로 좁힐 수 없으면 Optional.empty() */
+    public Optional<Collection<Long>> candidates(String term) {
+        if (!ready || term == null || term.length() < GRAM || !indexable(term)) {
+            return Optional.empty();
+        }
+        if (System.nanoTime() - reconciledAt > maxStalenessNanos) {
+            return Optional.empty();
+        }
+
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : grams(term)) {
+            Set<Long> ids = idsByGram.get(gram);
+            if (ids == null) {
+                return Optional.of(List.of());
+            }
+            postings.add(ids);
+        }
+        /* 가장 작은 목록부터 교집합을 구한다. */
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return result.size() > maxCandidates ? Optional.empty() : Optional.of(result);
+    }
+
+    public PostInsertEventListener immediateInsertListener() {
+        return immediate;
+    }
+
+    public PostUpdateEventListener immediateUpdateListener() {
+        return immediate;
+    }
+
+    public PostCommitUpdateEventListener afterCommitUpdateListener() {
+        return afterCommit;
+    }
+
+    public PostCommitDeleteEventListener afterCommitDeleteListener() {
+        return afterCommit;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(MembersBulkChangedEvent event) {
+        if (event.isDeleted()) {
+            event.getMemberIds().forEach(this::remove);
+            return;
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.createQuery("select m.id, m.username from Member m where m.id in :ids", Object[].class)
+                    .setParameter("ids", event.getMemberIds())
+                    .getResultList()
+                    .forEach(row -> addIfChanged((Long) row[0], (String) row[1]));
+        } finally {
+            em.close();
+        }
+    }
+
+    private void addIfChanged(Long id, String username) {
+        if (!Objects.equals(username, usernameById.get(id))) {
+            add(id, username);
+        }
+    }
+
+    private void add(Long id, String username) {
+        if (username == null) {
+            return;
+        }
+        usernameById.put(id, username);
+        for (String gram : grams(username)) {
+            idsByGram.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private void remove(Long id) {
+        String username = usernameById.remove(id);
+        if (username != null) {
+            removeGrams(id, grams(username));
+        }
+    }
+
+    private void removeGrams(Long id, Set<String> grams) {
+        for (String gram : grams) {
+            idsByGram.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    static Set<String> grams(String value) {
+        String normalized = fold(value);
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /* 대소문자와 악센트를 없앤다. (ex. "Renée" → "renee") */
+    static String fold(String value) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /* 접은 뒤의 검색어가 collation 과 같은 방식으로 비교된다고 볼 수 있는 글자로만 되어 있는지 */
+    static boolean indexable(String term) {
+        String folded = fold(term);
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (c >= 0x20 && c < 0x7f) {
+                continue;
+            }
+            if (Character.UnicodeScript.of(c) != Character.UnicodeScript.HANGUL) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String username(EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return null;
+        }
+        return (String) state[persister.getEntityMetamodel().getPropertyIndex("username")];
+    }
+
+    private class Immediate implements PostInsertEventListener, PostUpdateEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Member) {
+                add((Long) event.getId(), username(event.getPersister(), event.getState()));
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof Member) {
+                add((Long) event.getId(), username(event.getPersister(), event.getState()));
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+    }
+
+    private class AfterCommit implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        /* 바뀌기 전 이름에만 있던 3-gram 을 뺀다. */
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (!(event.getEntity() instanceof Member)) {
+                return;
+            }
+            String oldUsername = username(event.getPersister(), event.getOldState());
+            String newUsername = username(event.getPersister(), event.getState());
+            if (oldUsername == null || oldUsername.equals(newUsername)) {
+                return;
+            }
+            Set<String> stale = grams(oldUsername);
+            if (newUsername != null) {
+                stale.removeAll(grams(newUsername));
+            }
+            removeGrams((Long) event.getId(), stale);
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Member) {
+                remove((Long) event.getId());
+            }
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return true;
+        }
+    }
+}
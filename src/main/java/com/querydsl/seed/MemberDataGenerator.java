@@ -0,0 +1,197 @@
+package com.querydsl.seed;
+
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+    대용량 테스트 데이터 생성기
+    : em.persist 를 한 건씩 커밋하지 않고, batchSize 단위로 JDBC batch insert → flush → clear → commit 한다.
+      회원 범위를 threads 개로 나눠서 각 스레드가 자기 트랜잭션으로 동시에 insert 한다.
+      (hibernate.jdbc.batch_size / order_inserts, MySQL rewriteBatchedStatements 설정과 함께 사용)
+ */
+@Slf4j
+@Component
+public class MemberDataGenerator {
+
+    private static final String ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final SeedProperties properties;
+
+    public MemberDataGenerator(PlatformTransactionManager transactionManager, SeedProperties properties) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    public void generate() {
+        if (properties.getMembers() > 0 && properties.getTeams() < 1) {
+            throw new IllegalArgumentException("회원을 생성하려면 팀이 1개 이상 필요합니다.");
+        }
+        long start = System.nanoTime();
+
+        List<Long> teamIds = insertTeams();
+        long teamElapsed = System.nanoTime() - start;
+        report("teams", teamIds.size(), teamElapsed);
+
+        long memberStart = System.nanoTime();
+        insertMembers(teamIds);
+        report("members", properties.getMembers(), System.nanoTime() - memberStart);
+        report("total rows", teamIds.size() + properties.getMembers(), System.nanoTime() - start);
+    }
+
+    private List<Long> insertTeams() {
+        List<Long> teamIds = new ArrayList<>(properties.getTeams());
+        for (int from = 0; from < properties.getTeams(); from += properties.getBatchSize()) {
+            int to = Math.min(from + properties.getBatchSize(), properties.getTeams());
+            int batchFrom = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                useJdbcBatch();
+                List<Team> teams = new ArrayList<>(to - batchFrom);
+                for (int i = batchFrom; i < to; i++) {
+                    Team team = new Team(properties.getTeamNamePrefix() + alphabetic(i));
+                    em.persist(team);
+                    teams.add(team);
+                }
+                em.flush();
+                em.clear();
+                teams.forEach(team -> teamIds.add(team.getId()));
+            });
+        }
+        return teamIds;
+    }
+
+    private void insertMembers(List<Long> teamIds) {
+        long total = properties.getMembers();
+        int threads = (int) Math.max(1, Math.min(properties.getThreads(), total));
+        long perThread = (total + threads - 1) / threads;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long from = t * perThread;
+                long to = Math.min(from + perThread, total);
+                long seed = properties.getRandomSeed() + t;
+                futures.add(executor.submit(() -> insertMemberRange(teamIds, from, to, seed)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("회원 데이터 생성이 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("회원 데이터 생성에 실패했습니다.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertMemberRange(List<Long> teamIds, long from, long to, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Random gaussian = new Random(seed);
+
+        for (long batchFrom = from; batchFrom < to; batchFrom += properties.getBatchSize()) {
+            long batchTo = Math.min(batchFrom + properties.getBatchSize(), to);
+            long start = batchFrom;
+            transactionTemplate.executeWithoutResult(status -> {
+                useJdbcBatch();
+                /* clear 이후에는 다시 가져와야 하므로 batch 마다 팀 프록시를 한 번씩만 만든다. */
+                Team[] teams = new Team[teamIds.size()];
+                for (long i = start; i < batchTo; i++) {
+                    int teamIndex = teamIndex(i, teamIds.size(), random);
+                    if (teams[teamIndex] == null) {
+                        teams[teamIndex] = em.getReference(Team.class, teamIds.get(teamIndex));
+                    }
+                    Member member = new Member(username(i, random), age(i, random, gaussian));
+                    /* changeTeam() 은 팀의 members 컬렉션을 초기화하므로 연관관계의 주인 쪽만 세팅한다. */
+                    member.setTeam(teams[teamIndex]);
+                    em.persist(member);
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+
+    private void useJdbcBatch() {
+        em.unwrap(Session.class).setJdbcBatchSize(properties.getBatchSize());
+    }
+
+    private int teamIndex(long i, int teamCount, SplittableRandom random) {
+        switch (properties.getTeamDistribution()) {
+            case UNIFORM:
+                return random.nextInt(teamCount);
+            case SKEWED:
+                /* u^3 으로 0 쪽에 몰리게 만든다. */
+                double u = random.nextDouble();
+                return (int) Math.min(teamCount - 1, (long) (u * u * u * teamCount));
+            case ROUND_ROBIN:
+            default:
+                return (int) (i % teamCount);
+        }
+    }
+
+    private String username(long i, SplittableRandom random) {
+        if (properties.getUsernameDistribution() == SeedProperties.UsernameDistribution.RANDOM) {
+            StringBuilder sb = new StringBuilder(properties.getUsernamePrefix());
+            for (int c = 0; c < 8; c++) {
+                sb.append(ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length())));
+            }
+            return sb.toString();
+        }
+        return properties.getUsernamePrefix() + i;
+    }
+
+    private int age(long i, SplittableRandom random, Random gaussian) {
+        int min = properties.getMinAge();
+        int range = properties.getMaxAge() - min + 1;
+        switch (properties.getAgeDistribution()) {
+            case UNIFORM:
+                return min + random.nextInt(range);
+            case NORMAL:
+                double mean = min + (range - 1) / 2.0;
+                double age = mean + gaussian.nextGaussian() * (range / 6.0);
+                return (int) Math.max(min, Math.min(properties.getMaxAge(), Math.round(age)));
+            case SEQUENTIAL:
+            default:
+                return (int) (min + i % range);
+        }
+    }
+
+    /* 0 -> A, 1 -> B, ..., 25 -> Z, 26 -> AA */
+    private static String alphabetic(int index) {
+        StringBuilder sb = new StringBuilder();
+        int n = index;
+        do {
+            sb.append((char) ('A' + n % 26));
+            n = n / 26 - 1;
+        } while (n >= 0);
+        return sb.reverse().toString();
+    }
+
+    private static void report(String target, long rows, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        log.info("seed {}: {} rows in {} ms ({} rows/sec)",
+                target, rows, elapsedNanos / 1_000_000, String.format("%.0f", rows / seconds));
+    }
+}
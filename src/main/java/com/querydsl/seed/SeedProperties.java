@@ -0,0 +1,57 @@
+package com.querydsl.seed;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/*
+    테스트 데이터 생성 설정 (seed.*)
+    기본값은 기존 InitMember 와 같은 데이터(teamA, teamB 에 member0 ~ member99)를 만든다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "seed")
+public class SeedProperties {
+
+    private int teams = 2;
+    private long members = 100;
+
+    /* JDBC batch 크기이자 flush / clear / commit 단위 */
+    private int batchSize = 1000;
+    private int threads = 1;
+    private long randomSeed = 42L;
+
+    private String teamNamePrefix = "team";
+    private TeamDistribution teamDistribution = TeamDistribution.ROUND_ROBIN;
+
+    private String usernamePrefix = "member";
+    private UsernameDistribution usernameDistribution = UsernameDistribution.SEQUENTIAL;
+
+    private int minAge = 0;
+    private int maxAge = 99;
+    private AgeDistribution ageDistribution = AgeDistribution.SEQUENTIAL;
+
+    public enum TeamDistribution {
+        /* i % teams */
+        ROUND_ROBIN,
+        /* 균등 분포 랜덤 */
+        UNIFORM,
+        /* 앞쪽 팀에 회원이 몰리는 분포 (일부 인기 팀) */
+        SKEWED
+    }
+
+    public enum UsernameDistribution {
+        /* prefix + i (중복 없음) */
+        SEQUENTIAL,
+        /* prefix + 랜덤 8자리 (중복 가능) */
+        RANDOM
+    }
+
+    public enum AgeDistribution {
+        /* minAge + i % (maxAge - minAge + 1) */
+        SEQUENTIAL,
+        UNIFORM,
+        /* (minAge + maxAge) / 2 를 평균으로 하는 정규 분포 */
+        NORMAL
+    }
+}
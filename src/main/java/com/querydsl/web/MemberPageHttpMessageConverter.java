@@ -0,0 +1,345 @@
+package com.querydsl.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.dto.EstimatedPage;
+import com.querydsl.dto.MemberTeamDto;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Slice<MemberTeamDto> / Page<MemberTeamDto> 응답을 리플렉션 없이 직접 쓰는 컨버터
+    : Accept 헤더로 아래 형식을 요청했을 때만 사용하고, 그 외에는 기존처럼 Jackson 이 PageImpl 을 그대로 쓴다.
+      (이름에 +json 을 붙이면 Jackson 컨버터도 application/*+json 으로 받아버리므로 붙이지 않는다.)
+
+    application/x-member-page-json
+      {"columns":["memberId","username","age","teamId","teamName"],
+       "rows":[[1,"member1",10,1,"teamA"], ...],
+       "page":0,"size":20,"hasNext":true,"totalElements":100,"totalPages":5}   (totalElements / totalPages 는 Page 일 때만)
+      EstimatedPage(count=ESTIMATED) 는 "totalExact" 를 함께 쓴다. false 면 total 은 하한값이다.
+
+    application/x-member-page-binary (big-endian)
+      'M' 'P' version(1) flags(byte: 1=hasNext, 2=total 있음, 8=total 이 하한값(EstimatedPage))
+      page(int32) size(int32) [totalElements(int64)] rowCount(int32)
+      row = nullMask(byte: 1=memberId, 2=username, 4=age, 8=teamId, 16=teamName 가 null)
+            memberId(int64) username(string) age(int32) teamId(int64) teamName(string)   (null 인 필드는 생략)
+      string = UTF-8 바이트 길이(int32) + UTF-8
+
+    teams=dictionary 파라미터를 붙이면(ex. Accept: application/x-member-page-json;teams=dictionary)
+    팀은 teams 에 한 번씩만 쓰고 row 에는 teams 의 index 만 쓴다. (팀이 없으면 null)
+    팀은 (teamId, teamName) 으로 구분하므로 fields 로 둘 중 하나만 골라도 팀 값이 빠지지 않는다. (고르지 않은 값은 null)
+      json   : "teams":[[1,"teamA"], ...], "columns":["memberId","username","age","team"], "rows":[[1,"member1",10,0], ...]
+      binary : flags 에 4 를 켜고 rowCount 앞에 teamCount(int32) + team 들을 쓴다.
+               team = nullMask(byte: 1=teamId, 2=teamName 이 null) teamId(int64) teamName(string)   (null 인 필드는 생략)
+               row = nullMask(byte: 1=memberId, 2=username, 4=age, 8=team) memberId username age team(int32)
+
+    Slice / Page 를 반환하는 검색(/v2, /v3)만 이 형식으로 응답할 수 있다.
+    /v1 (List), /v4 (CursorSlice), batch-search (Map) 는 Accept 와 관계없이 기존 JSON 으로 응답한다.
+ */
+public class MemberPageHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String COMPACT_JSON_VALUE = "application/x-member-page-json";
+    public static final String BINARY_VALUE = "application/x-member-page-binary";
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType(COMPACT_JSON_VALUE);
+    public static final MediaType BINARY = MediaType.parseMediaType(BINARY_VALUE);
+
+    static final byte BINARY_VERSION = 1;
+    static final int FLAG_HAS_NEXT = 1;
+    static final int FLAG_HAS_TOTAL = 2;
+    static final int FLAG_TEAM_DICTIONARY = 4;
+    static final int FLAG_TOTAL_LOWER_BOUND = 8;
+
+    public static final String TEAMS_PARAMETER = "teams";
+    public static final String TEAMS_DICTIONARY = "dictionary";
+
+    private static final String[] COLUMNS = {"memberId", "username", "age", "teamId", "teamName"};
+    private static final String[] DICTIONARY_COLUMNS = {"memberId", "username", "age", "team"};
+
+    /* ObjectMapper 의 JsonFactory 는 스레드별로 버퍼를 재사용(BufferRecycler)한다. */
+    private final JsonFactory jsonFactory;
+
+    public MemberPageHttpMessageConverter(ObjectMapper objectMapper) {
+        super(COMPACT_JSON, BINARY);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Slice.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    /* 컨트롤러의 반환 타입이 Slice<MemberTeamDto> 계열일 때만 쓴다. */
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (type == null || !canWrite(mediaType)) {
+            return false;
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve();
+        return raw != null
+                && Slice.class.isAssignableFrom(raw)
+                && resolved.as(Slice.class).getGeneric(0).resolve() == MemberTeamDto.class;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    /* 응답 형식 협상(producible media types)은 제네릭 타입을 확인한 뒤 이 목록을 쓴다. */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) ? getSupportedMediaTypes() : Collections.emptyList();
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Slice<?> slice = (Slice<?>) value;
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        TeamDictionary teams = contentType != null
+                && TEAMS_DICTIONARY.equalsIgnoreCase(contentType.getParameter(TEAMS_PARAMETER))
+                ? TeamDictionary.of(slice.getContent()) : null;
+        if (contentType != null && BINARY.isCompatibleWith(contentType)) {
+            writeBinary(slice, teams, outputMessage.getBody());
+        } else {
+            writeCompactJson(slice, teams, outputMessage.getBody());
+        }
+    }
+
+    private void writeCompactJson(Slice<?> slice, TeamDictionary teams, OutputStream body) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(body, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        generator.writeStartObject();
+        if (teams != null) {
+            generator.writeArrayFieldStart("teams");
+            for (MemberTeamDto first : teams.entries) {
+                generator.writeStartArray();
+                writeNumber(generator, first.getTeamId());
+                generator.writeString(first.getTeamName());
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+        }
+
+        generator.writeArrayFieldStart("columns");
+        for (String column : teams != null ? DICTIONARY_COLUMNS : COLUMNS) {
+            generator.writeString(column);
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("rows");
+        for (Object row : slice.getContent()) {
+            MemberTeamDto dto = (MemberTeamDto) row;
+            generator.writeStartArray();
+            writeNumber(generator, dto.getMemberId());
+            generator.writeString(dto.getUsername());
+            writeNumber(generator, dto.getAge());
+            if (teams != null) {
+                writeNumber(generator, teams.indexOf(dto));
+            } else {
+                writeNumber(generator, dto.getTeamId());
+                generator.writeString(dto.getTeamName());
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+
+        generator.writeNumberField("page", slice.getNumber());
+        generator.writeNumberField("size", slice.getSize());
+        generator.writeBooleanField("hasNext", slice.hasNext());
+        if (slice instanceof Page) {
+            Page<?> page = (Page<?>) slice;
+            generator.writeNumberField("totalElements", page.getTotalElements());
+            generator.writeNumberField("totalPages", page.getTotalPages());
+        }
+        if (slice instanceof EstimatedPage) {
+            generator.writeBooleanField("totalExact", ((EstimatedPage<?>) slice).isTotalExact());
+        }
+        generator.writeEndObject();
+        generator.close();
+    }
+
+    private void writeBinary(Slice<?> slice, TeamDictionary teams, OutputStream body) throws IOException {
+        PooledBinaryOutput out = new PooledBinaryOutput(body);
+        boolean hasTotal = slice instanceof Page;
+
+        out.writeByte('M');
+        out.writeByte('P');
+        out.writeByte(BINARY_VERSION);
+        out.writeByte((slice.hasNext() ? FLAG_HAS_NEXT : 0)
+                | (hasTotal ? FLAG_HAS_TOTAL : 0)
+                | (teams != null ? FLAG_TEAM_DICTIONARY : 0)
+                | (isTotalLowerBound(slice) ? FLAG_TOTAL_LOWER_BOUND : 0));
+        out.writeInt(slice.getNumber());
+        out.writeInt(slice.getSize());
+        if (hasTotal) {
+            out.writeLong(((Page<?>) slice).getTotalElements());
+        }
+
+        if (teams != null) {
+            writeBinaryWithDictionary(slice, teams, out);
+            out.flush();
+            return;
+        }
+
+        out.writeInt(slice.getNumberOfElements());
+        for (Object row : slice.getContent()) {
+            MemberTeamDto dto = (MemberTeamDto) row;
+            out.writeByte(nullMask(dto));
+            if (dto.getMemberId() != null) {
+                out.writeLong(dto.getMemberId());
+            }
+            if (dto.getUsername() != null) {
+                out.writeString(dto.getUsername());
+            }
+            if (dto.getAge() != null) {
+                out.writeInt(dto.getAge());
+            }
+            if (dto.getTeamId() != null) {
+                out.writeLong(dto.getTeamId());
+            }
+            if (dto.getTeamName() != null) {
+                out.writeString(dto.getTeamName());
+            }
+        }
+        out.flush();
+    }
+
+    private static void writeBinaryWithDictionary(Slice<?> slice, TeamDictionary teams, PooledBinaryOutput out)
+            throws IOException {
+        out.writeInt(teams.entries.size());
+        for (MemberTeamDto first : teams.entries) {
+            out.writeByte((first.getTeamId() == null ? 1 : 0)
+                    | (first.getTeamName() == null ? 2 : 0));
+            if (first.getTeamId() != null) {
+                out.writeLong(first.getTeamId());
+            }
+            if (first.getTeamName() != null) {
+                out.writeString(first.getTeamName());
+            }
+        }
+
+        out.writeInt(slice.getNumberOfElements());
+        for (Object row : slice.getContent()) {
+            MemberTeamDto dto = (MemberTeamDto) row;
+            Integer team = teams.indexOf(dto);
+            out.writeByte((dto.getMemberId() == null ? 1 : 0)
+                    | (dto.getUsername() == null ? 2 : 0)
+                    | (dto.getAge() == null ? 4 : 0)
+                    | (team == null ? 8 : 0));
+            if (dto.getMemberId() != null) {
+                out.writeLong(dto.getMemberId());
+            }
+            if (dto.getUsername() != null) {
+                out.writeString(dto.getUsername());
+            }
+            if (dto.getAge() != null) {
+                out.writeInt(dto.getAge());
+            }
+            if (team != null) {
+                out.writeInt(team);
+            }
+        }
+    }
+
+    private static boolean isTotalLowerBound(Slice<?> slice) {
+        return slice instanceof EstimatedPage && !((EstimatedPage<?>) slice).isTotalExact();
+    }
+
+    private static int nullMask(MemberTeamDto dto) {
+        return (dto.getMemberId() == null ? 1 : 0)
+                | (dto.getUsername() == null ? 2 : 0)
+                | (dto.getAge() == null ? 4 : 0)
+                | (dto.getTeamId() == null ? 8 : 0)
+                | (dto.getTeamName() == null ? 16 : 0);
+    }
+
+    private static void writeNumber(JsonGenerator generator, Number value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+
+    /* 응답에 나오는 순서대로 팀마다 index 를 매긴다. (팀 값은 팀의 첫 row 것을 쓴다.) */
+    private static class TeamDictionary {
+        private final Map<TeamKey, Integer> indexByTeam = new HashMap<>();
+        private final List<MemberTeamDto> entries = new ArrayList<>();
+
+        static TeamDictionary of(List<?> content) {
+            TeamDictionary dictionary = new TeamDictionary();
+            for (Object row : content) {
+                MemberTeamDto dto = (MemberTeamDto) row;
+                TeamKey key = TeamKey.of(dto);
+                if (key != null && !dictionary.indexByTeam.containsKey(key)) {
+                    dictionary.indexByTeam.put(key, dictionary.entries.size());
+                    dictionary.entries.add(dto);
+                }
+            }
+            return dictionary;
+        }
+
+        Integer indexOf(MemberTeamDto dto) {
+            TeamKey key = TeamKey.of(dto);
+            return key != null ? indexByTeam.get(key) : null;
+        }
+    }
+
+    /* fields 에 따라 teamId 나 teamName 만 조회될 수 있으므로 둘을 같이 key 로 쓴다. */
+    @EqualsAndHashCode
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static class TeamKey {
+        private final Long teamId;
+        private final String teamName;
+
+        /* 팀 값이 하나도 없으면 null */
+        static TeamKey of(MemberTeamDto dto) {
+            if (dto.getTeamId() == null && dto.getTeamName() == null) {
+                return null;
+            }
+            return new TeamKey(dto.getTeamId(), dto.getTeamName());
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("응답 전용 형식입니다.", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("응답 전용 형식입니다.", inputMessage);
+    }
+}
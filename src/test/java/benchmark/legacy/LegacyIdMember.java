@@ -0,0 +1,30 @@
+package benchmark.legacy;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+/*
+    비교용 : 변경 전 Member 와 같은 id 매핑 (기본 @GeneratedValue → hibernate_sequence)
+    : 애플리케이션 엔티티 스캔(com.querydsl) 밖에 두고 IdGeneratorThroughputBenchmark 의 컨텍스트에서만 등록한다.
+ */
+@Getter
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class LegacyIdMember {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+    private String username;
+    private int age;
+
+    public LegacyIdMember(String username, int age) {
+        this.username = username;
+        this.age = age;
+    }
+}
@@ -0,0 +1,116 @@
+package com.querydsl.benchmark;
+
+import benchmark.legacy.LegacyIdMember;
+import com.querydsl.entity.Member;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    id 생성 전략별 insert 처리량 비교 (./gradlew benchmarkTest)
+    - Member         : pooled-lo 시퀀스 (allocation size 만큼 한 번에 할당)
+    - LegacyIdMember : 기본 @GeneratedValue (insert 마다 hibernate_sequence 조회 / 갱신)
+    LegacyIdMember 는 이 벤치마크 전용 컨텍스트(LegacyEntityConfig)에만 등록되므로 다른 테스트의 스키마에는 생기지 않는다.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class IdGeneratorThroughputBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorThroughputBenchmark.class);
+
+    /* @EntityScan 을 지정하면 기본 스캔 대신 쓰이므로 애플리케이션 엔티티 패키지도 같이 적는다. */
+    @TestConfiguration
+    @EntityScan(basePackageClasses = {Member.class, LegacyIdMember.class})
+    static class LegacyEntityConfig {
+    }
+
+    static final int ROWS = 20_000;
+    static final int BATCH_SIZE = 500;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from LegacyIdMember").executeUpdate();
+        });
+    }
+
+    @ParameterizedTest(name = "{0} threads")
+    @ValueSource(ints = {1, 8, 32})
+    void insertThroughput(int threads) throws Exception {
+        double pooled = insert(threads, i -> new Member("member" + i, (int) (i % 100)));
+        double legacy = insert(threads, i -> new LegacyIdMember("member" + i, (int) (i % 100)));
+
+        log.info("id generator threads={} pooled-lo={} rows/sec, hibernate_sequence={} rows/sec (x{})",
+                threads, Math.round(pooled), Math.round(legacy), String.format("%.1f", pooled / legacy));
+
+        assertThat(countRows("Member")).isEqualTo(ROWS);
+        assertThat(countRows("LegacyIdMember")).isEqualTo(ROWS);
+    }
+
+    private double insert(int threads, Function<Long, Object> entityFactory) throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long perThread = ROWS / threads;
+
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long from = t * perThread;
+                long to = t == threads - 1 ? ROWS : from + perThread;
+                futures.add(executor.submit(() -> {
+                    for (long batchFrom = from; batchFrom < to; batchFrom += BATCH_SIZE) {
+                        long batchStart = batchFrom;
+                        transactionTemplate.executeWithoutResult(status -> {
+                            em.unwrap(Session.class).setJdbcBatchSize(BATCH_SIZE);
+                            for (long i = batchStart; i < Math.min(batchStart + BATCH_SIZE, to); i++) {
+                                em.persist(entityFactory.apply(i));
+                            }
+                            em.flush();
+                            em.clear();
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return ROWS / seconds;
+    }
+
+    private long countRows(String entityName) {
+        return em.createQuery("select count(e) from " + entityName + " e", Long.class).getSingleResult();
+    }
+}
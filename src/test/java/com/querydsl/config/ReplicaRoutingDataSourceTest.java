@@ -0,0 +1,63 @@
+package com.querydsl.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* primary / replica 를 서로 다른 H2 인메모리 DB 로 띄우고 SELECT DATABASE() 로 어디서 실행됐는지 확인한다. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "member.datasource.routing.enabled=true",
+        "member.datasource.routing.replicas[0].url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "member.datasource.routing.replicas[0].username=sa",
+        "member.datasource.routing.replicas[0].password="
+})
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ReplicaRoutingDataSource routingDataSource;
+
+    @Test
+    @DisplayName("읽기 전용 트랜잭션은 replica 에서, 쓰기 트랜잭션은 primary 에서 실행한다.")
+    void routeByReadOnly() {
+        assertThat(databaseIn(true)).isEqualToIgnoringCase("replica");
+        assertThat(databaseIn(false)).isEqualToIgnoringCase("primary");
+    }
+
+    @Test
+    @DisplayName("지연이 maxLag 를 넘는 replica 는 빼고 primary 에서 읽는다.")
+    void fallbackToPrimaryWhenLagging() {
+        ReplicaRoutingProperties properties = new ReplicaRoutingProperties();
+        properties.setLagQuery("SELECT 3600");
+        ReplicaRoutingDataSource lagging = new ReplicaRoutingDataSource(
+                jdbcTemplate.getDataSource(), List.of(jdbcTemplate.getDataSource()), properties);
+
+        lagging.checkReplicas();
+
+        assertThat(lagging.availableReplicas()).isEmpty();
+        assertThat(routingDataSource.availableReplicas()).containsExactly("replica-0");
+    }
+
+    private String databaseIn(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+}
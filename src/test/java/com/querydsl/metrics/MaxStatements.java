@@ -0,0 +1,13 @@
+package com.querydsl.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/* StatementCountExtension 과 함께 사용 : 테스트 메서드 본문에서 실행해도 되는 최대 SQL 수 */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MaxStatements {
+    int value();
+}
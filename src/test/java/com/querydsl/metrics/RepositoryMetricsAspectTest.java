@@ -0,0 +1,83 @@
+package com.querydsl.metrics;
+
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import com.querydsl.repository.MemberJpaRepository;
+import com.querydsl.repository.MemberRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsAspectTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    void init() {
+        registry.clear();
+
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("메서드와 검색 조건 모양별로 응답 시간, SQL 수, row 수를 기록한다.")
+    void recordPerMethodAndShape() {
+        memberJpaRepository.searchByBuilder(new MemberSearchCondition("member1", null, 10, null));
+
+        Timer timer = registry.find(RepositoryMetricsAspect.QUERY_TIMER)
+                .tag("method", "MemberJpaRepository.searchByBuilder")
+                .tag("shape", "username+ageGoe")
+                .timer();
+        DistributionSummary statements = registry.find(RepositoryMetricsAspect.STATEMENTS)
+                .tag("method", "MemberJpaRepository.searchByBuilder")
+                .summary();
+        DistributionSummary rows = registry.find(RepositoryMetricsAspect.ROWS)
+                .tag("method", "MemberJpaRepository.searchByBuilder")
+                .summary();
+
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(1);
+        assertThat(rows.totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("repository 안에서 다시 repository 를 호출해도 바깥 호출 하나로 기록한다.")
+    void recordOutermostCallOnly() {
+        memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 10));
+
+        assertThat(registry.find(RepositoryMetricsAspect.QUERY_TIMER).timers())
+                .extracting(timer -> timer.getId().getTag("method"))
+                .containsExactly("MemberRepositoryCustom.searchPageComplex");
+    }
+}
@@ -0,0 +1,49 @@
+package com.querydsl.metrics;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    테스트 메서드 본문에서 실행된 SQL 수를 검증하는 JUnit 확장
+    : @BeforeEach 의 데이터 준비는 빼고 테스트 본문만 센다.
+      @MaxStatements 가 있으면 넘었을 때 가장 많이 반복된 SQL 과 함께 실패하고,
+      StatementCounter 를 파라미터로 받아서 직접 검증할 수도 있다.
+
+    @ExtendWith(StatementCountExtension.class)
+ */
+public class StatementCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(StatementCountExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        MaxStatements max = context.getRequiredTestMethod().getAnnotation(MaxStatements.class);
+        StatementCounter counter = StatementCounter.start(context.getDisplayName(), max != null ? max.value() : 0, false);
+        context.getStore(NAMESPACE).put(StatementCounter.class, counter);
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        StatementCounter counter = context.getStore(NAMESPACE).remove(StatementCounter.class, StatementCounter.class);
+        counter.end();
+        assertThat(counter.isOverBudget())
+                .as(counter.report())
+                .isFalse();
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == StatementCounter.class;
+    }
+
+    /* 테스트 메서드 파라미터는 beforeTestExecution 다음에 만들어지므로 이미 시작된 카운터를 넘겨준다. */
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(StatementCounter.class, StatementCounter.class);
+    }
+}
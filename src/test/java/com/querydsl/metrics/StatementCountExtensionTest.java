@@ -0,0 +1,61 @@
+package com.querydsl.metrics;
+
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import com.querydsl.repository.MemberJpaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@ExtendWith(StatementCountExtension.class)
+class StatementCountExtensionTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    void init() {
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, 10 + i, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @MaxStatements(1)
+    @DisplayName("DTO 로 조회하면 팀 정보까지 쿼리 한 번으로 가져온다.")
+    void searchIsSingleStatement() {
+        memberJpaRepository.searchByBuilder(new MemberSearchCondition());
+    }
+
+    @Test
+    @DisplayName("지연 로딩된 팀을 하나씩 건드리면 반복된 SQL 로 드러난다. (N+1)")
+    void lazyTeamIsRepeatedStatement(StatementCounter counter) {
+        List<Member> members = memberJpaRepository.findAll();
+        for (Member member : members) {
+            member.getTeam().getName();
+        }
+
+        assertThat(counter.getCount()).isEqualTo(1 + members.size());
+        assertThat(counter.mostRepeatedPattern()).contains("from team");
+    }
+}
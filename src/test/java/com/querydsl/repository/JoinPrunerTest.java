@@ -0,0 +1,68 @@
+package com.querydsl.repository;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.entity.QMember;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.querydsl.entity.QMember.member;
+import static com.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JoinPrunerTest {
+
+    @Test
+    @DisplayName("어디에서도 쓰이지 않는 다대일 left join 은 지운다.")
+    void pruneUnusedLeftJoin() {
+        JPAQuery<?> count = new JPAQuery<Void>()
+                .select(member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(10), member.team.id.eq(1L));
+
+        assertThat(jpql(JoinPruner.prune(count.getMetadata()))).doesNotContainIgnoringCase("join");
+    }
+
+    @Test
+    @DisplayName("select / where / order by / 서브쿼리에서 쓰이는 join 은 남긴다.")
+    void keepReferencedJoin() {
+        assertJoinKept(new JPAQuery<Void>().select(member.id, team.name)
+                .from(member).leftJoin(member.team, team));
+        assertJoinKept(new JPAQuery<Void>().select(member.count())
+                .from(member).leftJoin(member.team, team).where(team.name.eq("teamA")));
+        assertJoinKept(new JPAQuery<Void>().select(member.id)
+                .from(member).leftJoin(member.team, team).orderBy(team.name.asc()));
+
+        QMember sub = new QMember("sub");
+        assertJoinKept(new JPAQuery<Void>().select(member.id)
+                .from(member).leftJoin(member.team, team)
+                .where(member.age.eq(JPAExpressions.select(sub.age.max()).from(sub).where(sub.team.eq(team)))));
+    }
+
+    @Test
+    @DisplayName("inner join, 컬렉션 join, fetch join 은 row 수나 결과를 바꿀 수 있으므로 남긴다.")
+    void keepJoinsThatChangeResult() {
+        assertJoinKept(new JPAQuery<Void>().select(member.count())
+                .from(member).join(member.team, team));
+        assertJoinKept(new JPAQuery<Void>().select(team.count())
+                .from(team).leftJoin(team.members, member));
+        assertJoinKept(new JPAQuery<Void>().select(member)
+                .from(member).leftJoin(member.team, team).fetchJoin());
+    }
+
+    private static void assertJoinKept(JPAQuery<?> query) {
+        QueryMetadata metadata = query.getMetadata();
+        assertThat(JoinPruner.prune(metadata)).isSameAs(metadata);
+        assertThat(jpql(metadata)).containsIgnoringCase("join");
+    }
+
+    private static String jpql(QueryMetadata metadata) {
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(metadata, false, null);
+        return serializer.toString();
+    }
+}
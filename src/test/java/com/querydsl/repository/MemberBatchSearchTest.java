@@ -0,0 +1,160 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.MemberField;
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.dto.UsernameMatch;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import com.querydsl.metrics.MaxStatements;
+import com.querydsl.metrics.StatementCountExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "member.search.batch.max-searches=6",
+        "member.search.batch.branches-per-query=2",
+        "member.search.batch.max-statements=3"
+})
+@Transactional
+@ExtendWith(StatementCountExtension.class)
+class MemberBatchSearchTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    void init() {
+        Team teamA = new Team("batchTeamA");
+        Team teamB = new Team("batchTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("batch1", 10, teamA));
+        em.persist(new Member("batch2", 20, teamA));
+        em.persist(new Member("batch3", 30, teamB));
+        em.persist(new Member("batch4", 40, teamB));
+        em.persist(new Member("batch5", 50));
+        em.flush();
+        em.clear();
+    }
+
+    /* 조건 모양이 4가지라 max-statements(3) 를 넘으므로 모양이 다른 조건도 섞어서 묶인다. */
+    @Test
+    @DisplayName("조건마다 따로 검색한 결과와 같은 결과를 요청 key 별로 돌려준다.")
+    void sameResultAsSingleSearch() {
+        Map<String, MemberSearchCondition> searches = new LinkedHashMap<>();
+        searches.put("teamA", new MemberSearchCondition(null, "batchTeamA", null, null));
+        searches.put("older", new MemberSearchCondition("batch", null, 30, null, UsernameMatch.PREFIX));
+        searches.put("teamBYoung", new MemberSearchCondition(null, "batchTeamB", null, 35));
+        searches.put("exact", new MemberSearchCondition("batch5", null, null, null));
+        searches.put("sameAsTeamA", new MemberSearchCondition("", "batchTeamA", null, null));
+        searches.put("none", new MemberSearchCondition("nobody", null, null, null));
+
+        Map<String, List<MemberTeamDto>> result = memberRepository.searchBatch(searches);
+
+        assertThat(result).containsOnlyKeys(searches.keySet());
+        searches.forEach((key, condition) ->
+                assertThat(usernames(result.get(key)))
+                        .as(key)
+                        .containsExactlyElementsOf(usernames(memberRepository.searchByWhereParameter(condition))));
+        assertThat(usernames(result.get("older"))).containsExactly("batch3", "batch4", "batch5");
+        assertThat(result.get("none")).isEmpty();
+    }
+
+    @Test
+    @MaxStatements(1)
+    @DisplayName("branches-per-query 이하의 같은 모양 조건은 SQL 한 번으로 검색한다.")
+    void sameShapeSingleStatement() {
+        Map<String, MemberSearchCondition> searches = new LinkedHashMap<>();
+        searches.put("teamA", new MemberSearchCondition(null, "batchTeamA", null, null));
+        searches.put("teamADuplicate", new MemberSearchCondition(null, "batchTeamA", null, null));
+        searches.put("teamB", new MemberSearchCondition(null, "batchTeamB", null, null));
+
+        Map<String, List<MemberTeamDto>> result = memberRepository.searchBatch(searches);
+
+        assertThat(usernames(result.get("teamA"))).containsExactly("batch1", "batch2");
+        assertThat(usernames(result.get("teamADuplicate"))).containsExactly("batch1", "batch2");
+        assertThat(usernames(result.get("teamB"))).containsExactly("batch3", "batch4");
+    }
+
+    @Test
+    @MaxStatements(2)
+    @DisplayName("모양이 다른 조건은 or 로 묶지 않고 모양별로 SQL 을 나눈다.")
+    void statementPerShape() {
+        Map<String, MemberSearchCondition> searches = new LinkedHashMap<>();
+        searches.put("teamA", new MemberSearchCondition(null, "batchTeamA", null, null));
+        searches.put("noTeam", new MemberSearchCondition("batch5", null, null, null));
+
+        Map<String, List<MemberTeamDto>> result = memberRepository.searchBatch(searches);
+
+        assertThat(usernames(result.get("teamA"))).containsExactly("batch1", "batch2");
+        assertThat(usernames(result.get("noTeam"))).containsExactly("batch5");
+        assertThat(result.get("noTeam")).extracting(MemberTeamDto::getTeamName).containsOnlyNulls();
+    }
+
+    @Test
+    @DisplayName("fields 는 검색마다 따로 적용하고, fields 만 다른 검색은 합치지 않는다.")
+    void fieldsPerSearch() {
+        MemberSearchCondition sparse = new MemberSearchCondition(null, "batchTeamA", null, null);
+        sparse.setFields(EnumSet.of(MemberField.USERNAME));
+        Map<String, MemberSearchCondition> searches = new LinkedHashMap<>();
+        searches.put("sparse", sparse);
+        searches.put("full", new MemberSearchCondition(null, "batchTeamA", null, null));
+
+        Map<String, List<MemberTeamDto>> result = memberRepository.searchBatch(searches);
+
+        assertThat(usernames(result.get("sparse"))).containsExactly("batch1", "batch2");
+        assertThat(result.get("sparse")).extracting(MemberTeamDto::getAge).containsOnlyNulls();
+        assertThat(result.get("sparse")).extracting(MemberTeamDto::getTeamName).containsOnlyNulls();
+        assertThat(result.get("full")).extracting(MemberTeamDto::getAge).containsExactly(10, 20);
+        assertThat(result.get("full")).extracting(MemberTeamDto::getTeamName).containsOnly("batchTeamA");
+    }
+
+    @Test
+    @DisplayName("한 번에 검색할 수 있는 조건 수를 넘으면 예외가 발생한다.")
+    void tooManySearches() {
+        Map<String, MemberSearchCondition> searches = new LinkedHashMap<>();
+        for (int i = 0; i <= 6; i++) {
+            searches.put("search" + i, new MemberSearchCondition("batch" + i, null, null, null));
+        }
+
+        assertThatThrownBy(() -> memberRepository.searchBatch(searches))
+                .isInstanceOf(InvalidSearchRequestException.class);
+    }
+
+    @Test
+    @DisplayName("비어 있는(null) 검색 조건이 있으면 예외가 발생한다.")
+    void nullCondition() {
+        Map<String, MemberSearchCondition> searches = new LinkedHashMap<>();
+        searches.put("a", new MemberSearchCondition("batch1", null, null, null));
+        searches.put("b", null);
+
+        assertThatThrownBy(() -> memberRepository.searchBatch(searches))
+                .isInstanceOf(InvalidSearchRequestException.class)
+                .hasMessageEndingWith(": b");
+    }
+
+    private static List<String> usernames(List<MemberTeamDto> members) {
+        return members.stream().map(MemberTeamDto::getUsername).collect(Collectors.toList());
+    }
+}
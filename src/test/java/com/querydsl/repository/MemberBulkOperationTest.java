@@ -0,0 +1,126 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/* 청크마다 커밋되므로 트랜잭션 롤백 없이 실행하고 직접 정리한다. */
+@SpringBootTest(properties = {
+        "member.bulk.chunk-size=2",
+        "member.bulk.chunk-pause=0ms"
+})
+class MemberBulkOperationTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        Team bulkTeam = teamRepository.save(new Team("bulkTeam"));
+        Team otherTeam = teamRepository.save(new Team("otherBulkTeam"));
+        for (int i = 0; i < 5; i++) {
+            memberIds.add(memberRepository.save(new Member("bulk" + i, 10 + i, bulkTeam)).getId());
+        }
+        memberIds.add(memberRepository.save(new Member("otherBulk", 10, otherTeam)).getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(memberIds);
+        teamRepository.deleteAllInBatch(teamRepository.findByName("bulkTeam"));
+        teamRepository.deleteAllInBatch(teamRepository.findByName("otherBulkTeam"));
+    }
+
+    @Test
+    @DisplayName("조건에 맞는 회원만 PK 순서 청크로 나눠서 수정한다.")
+    void bulkUpdate() {
+        long affected = memberRepository.bulkUpdate(
+                new MemberSearchCondition(null, "bulkTeam", 12, null),
+                update -> update.set(member.age, member.age.add(100)));
+
+        assertThat(affected).isEqualTo(3);
+        assertThat(memberRepository.findAll(member.id.in(memberIds)))
+                .extracting(Member::getUsername, Member::getAge)
+                .containsExactlyInAnyOrder(
+                        tuple("bulk0", 10),
+                        tuple("bulk1", 11),
+                        tuple("bulk2", 112),
+                        tuple("bulk3", 113),
+                        tuple("bulk4", 114),
+                        tuple("otherBulk", 10));
+    }
+
+    @Test
+    @DisplayName("벌크 연산은 엔티티 이벤트가 없으므로 count 캐시를 직접 비운다.")
+    void bulkUpdateInvalidatesCountCache() {
+        MemberSearchCondition condition = new MemberSearchCondition(null, "bulkTeam", null, null);
+        countCache.put(condition, 5);
+
+        memberRepository.bulkUpdate(condition, update -> update.set(member.age, member.age.add(1)));
+
+        assertThat(countCache.getIfPresent(condition)).isNull();
+    }
+
+    @Test
+    @DisplayName("조건에 맞는 회원만 삭제한다.")
+    void bulkDelete() {
+        long affected = memberRepository.bulkDelete(new MemberSearchCondition(null, "bulkTeam", null, 11));
+
+        assertThat(affected).isEqualTo(2);
+        assertThat(memberRepository.findAll(member.id.in(memberIds)))
+                .extracting(Member::getUsername)
+                .containsExactlyInAnyOrder("bulk2", "bulk3", "bulk4", "otherBulk");
+    }
+
+    @Test
+    @DisplayName("호출한 쪽 영속성 컨텍스트에서 바뀐 회원만 빼서 다시 조회하면 새 값을 읽는다.")
+    void evictChangedMembersOnly() {
+        /* 청크 트랜잭션이 커밋한 값을 같은 트랜잭션 안에서 다시 읽기 위해 READ_COMMITTED 로 실행한다. */
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        transaction.executeWithoutResult(status -> {
+            Member changed = em.find(Member.class, memberIds.get(0));
+            Member untouched = em.find(Member.class, memberIds.get(5));
+
+            memberRepository.bulkUpdate(
+                    new MemberSearchCondition("bulk0", null, null, null),
+                    update -> update.set(member.age, 99));
+
+            assertThat(em.contains(changed)).isFalse();
+            assertThat(em.contains(untouched)).isTrue();
+            assertThat(em.find(Member.class, memberIds.get(0)).getAge()).isEqualTo(99);
+        });
+    }
+}
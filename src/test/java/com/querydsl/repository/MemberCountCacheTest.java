@@ -0,0 +1,89 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberCountCacheTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    AtomicInteger countQueryCalls = new AtomicInteger();
+
+    @BeforeEach
+    void init() {
+        countCache.invalidateAll();
+    }
+
+    @Test
+    void sameConditionRunsCountOnce() {
+        countCache.get(new MemberSearchCondition(null, "teamA", 10, null), this::countQuery);
+        countCache.get(new MemberSearchCondition("", "teamA", 10, null), this::countQuery);
+
+        assertThat(countQueryCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void differentConditionRunsCountAgain() {
+        countCache.get(new MemberSearchCondition(null, "teamA", 10, null), this::countQuery);
+        countCache.get(new MemberSearchCondition(null, "teamB", 10, null), this::countQuery);
+
+        assertThat(countQueryCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void saveInvalidatesCache() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        countCache.get(condition, this::countQuery);
+
+        Team team = new Team("teamA");
+        em.persist(team);
+        memberRepository.save(new Member("member1", 10, team));
+        em.flush();
+
+        countCache.get(condition, this::countQuery);
+        assertThat(countQueryCalls.get()).isEqualTo(2);
+    }
+
+    /* 커밋되지 않은 데이터로 채운 count 는 롤백되면 버려져야 한다. */
+    @Test
+    void rollbackInvalidatesCache() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        Team team = new Team("teamA");
+        em.persist(team);
+        memberRepository.save(new Member("member1", 10, team));
+        em.flush();
+        countCache.get(condition, this::countQuery);
+
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+
+        countCache.get(condition, this::countQuery);
+        assertThat(countQueryCalls.get()).isEqualTo(2);
+    }
+
+    private Long countQuery() {
+        return (long) countQueryCalls.incrementAndGet();
+    }
+}
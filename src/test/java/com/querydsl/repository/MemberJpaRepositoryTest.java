@@ -2,6 +2,7 @@ package com.querydsl.repository;
 
 import com.querydsl.dto.MemberSearchCondition;
 import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.dto.UsernameMatch;
 import com.querydsl.entity.Member;
 import com.querydsl.entity.Team;
 import org.junit.jupiter.api.Test;
@@ -109,6 +110,12 @@ class MemberJpaRepositoryTest {
                 ),
                 Arguments.arguments(
                         new MemberSearchCondition("memberX", "teamB", null, 30), 0
+                ),
+                Arguments.arguments(
+                        new MemberSearchCondition("mem", null, null, null, UsernameMatch.PREFIX), 4
+                ),
+                Arguments.arguments(
+                        new MemberSearchCondition("ber3", null, null, null, UsernameMatch.CONTAINS), 1
                 )
         );
     }
@@ -0,0 +1,102 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    count 는 별도 커넥션에서 실행되므로 커밋된 데이터로 테스트하고 직접 정리한다.
+    요청 쪽 커넥션 풀은 1개로 줄여서, count 가 요청 쪽 풀을 쓰면 커넥션을 기다리다 실패하게 한다.
+ */
+@SpringBootTest(properties = {
+        "member.search.parallel-count.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=3000"
+})
+class MemberParallelCountTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Team team;
+
+    @BeforeEach
+    void init() {
+        countCache.invalidateAll();
+        team = teamRepository.save(new Team("parallelTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            members.add(new Member("parallel" + i, i, team));
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(memberRepository.findAll(member.team.name.eq("parallelTeam")));
+        teamRepository.deleteAllInBatch(teamRepository.findByName("parallelTeam"));
+        countCache.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("count 를 다른 커넥션에서 동시에 실행해도 total 이 같다.")
+    void parallelCount() {
+        MemberSearchCondition condition = new MemberSearchCondition(null, "parallelTeam", 10, null);
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(1, 5));
+
+        assertThat(result.getContent()).extracting(MemberTeamDto::getUsername)
+                .containsExactly("parallel15", "parallel16", "parallel17", "parallel18", "parallel19");
+        assertThat(result.getTotalElements()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("count 가 필요 없는 페이지는 content 만으로 total 을 구한다.")
+    void countNotNeeded() {
+        MemberSearchCondition condition = new MemberSearchCondition(null, "parallelTeam", 25, null);
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).hasSize(5);
+        assertThat(result.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("요청이 커넥션을 잡고 기다려도 count 는 전용 커넥션 풀에서 실행된다.")
+    void countOnDedicatedPool() {
+        MemberSearchCondition condition = new MemberSearchCondition(null, "parallelTeam", 10, null);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Page<MemberTeamDto> result = readOnly.execute(status ->
+                memberRepository.searchPageComplex(condition, PageRequest.of(1, 5)));
+
+        assertThat(result.getTotalElements()).isEqualTo(20);
+    }
+}
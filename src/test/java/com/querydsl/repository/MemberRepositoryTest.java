@@ -1,7 +1,12 @@
 package com.querydsl.repository;
 
+import com.querydsl.dto.BulkWriteResult;
+import com.querydsl.dto.CursorSlice;
+import com.querydsl.dto.EstimatedPage;
 import com.querydsl.dto.MemberSearchCondition;
 import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.dto.MemberUpsertDto;
+import com.querydsl.dto.UsernameMatch;
 import com.querydsl.entity.Member;
 import com.querydsl.entity.QMember;
 import com.querydsl.entity.Team;
@@ -15,15 +20,18 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -174,10 +182,172 @@ class MemberRepositoryTest {
                         PageRequest.of(0, 5),
                         4,
                         List.of("member1", "member2", "member3", "member4")
+                ),
+                Arguments.arguments(
+                        new MemberSearchCondition("member", "teamB", null, null, UsernameMatch.PREFIX),
+                        PageRequest.of(0, 2),
+                        2,
+                        List.of("member3", "member4")
                 )
         );
     }
 
+    @ParameterizedTest
+    @MethodSource("pageTestValues")
+    void searchPageByCountStrategyTest(
+            MemberSearchCondition condition, Pageable pageable, int expectedSize, List<String> expectedUsernames) {
+        initDataSetting();
+
+        for (CountStrategy countStrategy : CountStrategy.values()) {
+            Slice<MemberTeamDto> result = memberRepository.searchPage(condition, pageable, countStrategy);
+
+            List<String> usernames = result.getContent().stream()
+                    .map(MemberTeamDto::getUsername)
+                    .collect(Collectors.toList());
+            assertThat(usernames).hasSize(expectedSize).isEqualTo(expectedUsernames);
+        }
+    }
+
+    @Test
+    @DisplayName("NONE 전략은 count 없이 다음 페이지 존재 여부만 판단한다.")
+    void searchPageNoCountTest() {
+        initDataSetting();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        Slice<MemberTeamDto> first = memberRepository.searchPage(condition, PageRequest.of(0, 3), CountStrategy.NONE);
+        Slice<MemberTeamDto> last = memberRepository.searchPage(condition, PageRequest.of(1, 3), CountStrategy.NONE);
+
+        assertThat(first).isNotInstanceOf(Page.class);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.hasNext()).isFalse();
+        assertThat(last.getContent()).extracting(MemberTeamDto::getUsername).containsExactly("member4");
+    }
+
+    @Test
+    @DisplayName("ESTIMATED 전략은 결과가 적으면 정확한 total 을 돌려준다.")
+    void searchPageEstimatedCountTest() {
+        initDataSetting();
+
+        Slice<MemberTeamDto> result = memberRepository
+                .searchPage(new MemberSearchCondition(), PageRequest.of(0, 2), CountStrategy.ESTIMATED);
+
+        assertThat(result).isInstanceOf(EstimatedPage.class);
+        assertThat(((Page<MemberTeamDto>) result).getTotalElements()).isEqualTo(4);
+        assertThat(((EstimatedPage<MemberTeamDto>) result).isTotalExact()).isTrue();
+    }
+
+    @Test
+    void streamByConditionTest() {
+        initDataSetting();
+
+        List<String> usernames = new ArrayList<>();
+        memberRepository.streamByCondition(
+                new MemberSearchCondition(null, null, 20, null), dto -> usernames.add(dto.getUsername()));
+
+        assertThat(usernames).containsExactly("member2", "member3", "member4");
+    }
+
+    @Test
+    void saveAllBatchedTest() {
+        Team teamA = new Team("teamA");
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("bulk" + i, i, teamA));
+        }
+
+        BulkWriteResult result = memberRepository.saveAllBatched(members);
+
+        assertThat(result.getInserted()).isEqualTo(10);
+        assertThat(result.getBatches()).hasSize(1);
+        assertThat(memberRepository.searchByWhereParameter(new MemberSearchCondition(null, "teamA", null, null)))
+                .hasSize(10);
+    }
+
+    @Test
+    @DisplayName("호출한 쪽 트랜잭션에 참여하면 영속성 컨텍스트를 비우지 않는다.")
+    void saveAllBatchedKeepsCallerEntitiesTest() {
+        initDataSetting();
+        Member loaded = memberRepository.findAllByUsername("member1").get(0);
+
+        memberRepository.saveAllBatched(List.of(new Member("bulk1", 1), new Member("bulk2", 2)));
+        memberRepository.upsertByUsername(List.of(new MemberUpsertDto("member2", 21, "teamA")));
+
+        assertThat(em.contains(loaded)).isTrue();
+        assertThat(em.contains(loaded.getTeam())).isTrue();
+    }
+
+    @Test
+    void upsertByUsernameTest() {
+        initDataSetting();
+
+        BulkWriteResult result = memberRepository.upsertByUsername(List.of(
+                new MemberUpsertDto("member1", 11, "teamB"),
+                new MemberUpsertDto("member5", 50, "teamC"),
+                new MemberUpsertDto("member6", 60, null)
+        ));
+
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getInserted()).isEqualTo(2);
+
+        List<MemberTeamDto> member1 = memberRepository
+                .searchByWhereParameter(new MemberSearchCondition("member1", null, null, null));
+        assertThat(member1).extracting(MemberTeamDto::getAge).containsExactly(11);
+        assertThat(member1).extracting(MemberTeamDto::getTeamName).containsExactly("teamB");
+
+        assertThat(memberRepository.searchByWhereParameter(new MemberSearchCondition(null, "teamC", null, null)))
+                .extracting(MemberTeamDto::getUsername)
+                .containsExactly("member5");
+    }
+
+    @Test
+    @DisplayName("cursor 를 따라가면 모든 페이지를 중복 없이 순서대로 조회한다.")
+    void searchByCursorTest() {
+        initDataSetting();
+
+        MemberSearchCondition condition = new MemberSearchCondition(null, null, 10, 40);
+        List<String> usernames = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorSlice<MemberTeamDto> result = memberRepository.searchByCursor(condition, cursor, 3);
+            result.getContent().forEach(dto -> usernames.add(dto.getUsername()));
+            cursor = result.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(2);
+        assertThat(usernames).containsExactly("member1", "member2", "member3", "member4");
+    }
+
+    @Test
+    @DisplayName("cursor 조회에도 동일한 검색 조건이 적용된다.")
+    void searchByCursorWithConditionTest() {
+        initDataSetting();
+
+        CursorSlice<MemberTeamDto> first = memberRepository
+                .searchByCursor(new MemberSearchCondition(null, "teamB", null, null), null, 1);
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(first.getContent()).extracting(MemberTeamDto::getUsername).containsExactly("member3");
+
+        CursorSlice<MemberTeamDto> second = memberRepository
+                .searchByCursor(new MemberSearchCondition(null, "teamB", null, null), first.getNextCursor(), 1);
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getContent()).extracting(MemberTeamDto::getUsername).containsExactly("member4");
+    }
+
+    @Test
+    void searchByCursorInvalidCursorTest() {
+        assertThatThrownBy(() -> memberRepository.searchByCursor(new MemberSearchCondition(), "not-a-cursor", 10))
+                .isInstanceOf(InvalidSearchRequestException.class);
+    }
+
+    @Test
+    void searchByCursorInvalidSizeTest() {
+        assertThatThrownBy(() -> memberRepository.searchByCursor(new MemberSearchCondition(), null, Integer.MAX_VALUE))
+                .isInstanceOf(InvalidSearchRequestException.class);
+    }
+
     /*
         JpaRepository 기본 메서드에 Q 객체 기능을 쓸 수 있다.
         [ 한계 ]
@@ -0,0 +1,166 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.dto.UsernameMatch;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    쓰기 트랜잭션에서는 팀 이름 사전 / username 3-gram 색인을 쓰지 않으므로,
+    데이터를 커밋해 두고 읽기 전용 트랜잭션에서 검색해야 바꿔 쓴 쿼리(team id in / member id in)까지 비교된다. 직접 정리한다.
+ */
+@SpringBootTest
+class MemberSearchQueryCompilerTest {
+
+    @Autowired
+    MemberSearchQueryCompiler queryCompiler;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    TeamNameDictionary teamNameDictionary;
+
+    @Autowired
+    UsernameTrigramIndex usernameTrigramIndex;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate readOnly;
+    List<Member> members = new ArrayList<>();
+    List<Team> teams = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Team teamA = teamRepository.save(new Team("compilerTeamA"));
+        Team teamB = teamRepository.save(new Team("compilerTeamB"));
+        teams.addAll(List.of(teamA, teamB));
+
+        members.addAll(memberRepository.saveAll(List.of(
+                new Member("compilerMember1", 10, teamA),
+                new Member("compilerMember2", 20, teamA),
+                new Member("compilerMember3", 30, teamB),
+                new Member("compilerMember4", 40, teamB),
+                new Member("compilerMember5", 50),
+                new Member("compilerUnder_score", 60))));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAll(members);
+        teamRepository.deleteAll(teams);
+    }
+
+    @Test
+    @DisplayName("같은 팀의 teamId / teamName 은 조회 결과 안에서 같은 인스턴스를 쓴다.")
+    void deduplicateTeamValues() {
+        List<MemberTeamDto> result = readOnly.execute(status ->
+                queryCompiler.fetchContent(new MemberSearchCondition(null, "compilerTeamA", null, null)));
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getTeamName()).isSameAs(result.get(1).getTeamName());
+        assertThat(result.get(0).getTeamId()).isSameAs(result.get(1).getTeamId());
+    }
+
+    @Test
+    @DisplayName("모든 검색 조건 조합에서 BooleanBuilder 로 만든 동적 쿼리와 같은 결과를 돌려준다.")
+    void sameResultAsDynamicQuery() {
+        /* teamName 조건이 team id in 으로 바뀌는 경우를 비교하는지 확인한다. */
+        assertThat(teamNameDictionary.resolve("compilerTeamA")).isPresent();
+
+        readOnly.executeWithoutResult(status -> {
+            for (MemberSearchCondition condition : allShapes()) {
+                List<Long> expected = ids(memberJpaRepository.searchByBuilder(condition));
+                List<Long> actual = ids(queryCompiler.fetchContent(condition));
+
+                assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+                assertThat(queryCompiler.count(condition)).isEqualTo(expected.size());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("같은 모양의 검색 조건은 값이 달라도 컴파일된 쿼리를 재사용한다.")
+    void reuseCompiledQueryPerShape() {
+        readOnly.executeWithoutResult(status -> {
+            queryCompiler.fetchContent(new MemberSearchCondition("compilerMember1", null, 10, null));
+            int compiled = queryCompiler.compiledCount();
+
+            queryCompiler.fetchContent(new MemberSearchCondition("compilerMember2", null, 20, null));
+            queryCompiler.fetchContent(new MemberSearchCondition("compilerMember3", "", 30, null));
+
+            assertThat(queryCompiler.compiledCount()).isEqualTo(compiled);
+        });
+    }
+
+    @Test
+    @DisplayName("username 을 앞부분 / 부분 문자열로 검색한다.")
+    void usernamePrefixAndContains() {
+        /* CONTAINS 가 3-gram 색인의 후보(member id in / 후보 없음)로 바뀌는 경우를 검색하는지 확인한다. */
+        assertThat(usernameTrigramIndex.candidates("ber3")).isPresent();
+        assertThat(usernameTrigramIndex.candidates("xyz").orElseThrow()).isEmpty();
+
+        readOnly.executeWithoutResult(status -> {
+            assertThat(usernames(condition("compilerMember", UsernameMatch.PREFIX))).containsExactly(
+                    "compilerMember1", "compilerMember2", "compilerMember3", "compilerMember4", "compilerMember5");
+            assertThat(usernames(condition("ber3", UsernameMatch.CONTAINS))).containsExactly("compilerMember3");
+            assertThat(usernames(condition("r_s", UsernameMatch.CONTAINS))).containsExactly("compilerUnder_score");
+            assertThat(usernames(condition("r%s", UsernameMatch.CONTAINS))).isEmpty();
+            assertThat(usernames(condition("xyz", UsernameMatch.CONTAINS))).isEmpty();
+            assertThat(queryCompiler.count(condition("ilerMember", UsernameMatch.CONTAINS))).isEqualTo(5);
+        });
+    }
+
+    private List<String> usernames(MemberSearchCondition condition) {
+        List<String> usernames = new ArrayList<>();
+        queryCompiler.fetchContent(condition).forEach(dto -> usernames.add(dto.getUsername()));
+        return usernames;
+    }
+
+    private static MemberSearchCondition condition(String username, UsernameMatch match) {
+        return new MemberSearchCondition(username, null, null, null, match);
+    }
+
+    private static List<MemberSearchCondition> allShapes() {
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        for (int shape = 0; shape < 16; shape++) {
+            conditions.add(new MemberSearchCondition(
+                    (shape & 1) != 0 ? "compilerMember2" : null,
+                    (shape & 2) != 0 ? "compilerTeamA" : null,
+                    (shape & 4) != 0 ? 15 : null,
+                    (shape & 8) != 0 ? 45 : null
+            ));
+        }
+        return conditions;
+    }
+
+    private static List<Long> ids(List<MemberTeamDto> result) {
+        List<Long> ids = new ArrayList<>();
+        result.forEach(dto -> ids.add(dto.getMemberId()));
+        return ids;
+    }
+}
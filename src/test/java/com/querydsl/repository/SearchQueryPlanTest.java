@@ -0,0 +1,154 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.MemberField;
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    검색 쿼리 실행 계획 회귀 테스트
+    : 검색 조건 모양(shape)마다 실제로 실행된 SQL 을 모아서 H2(MySQL 모드)에 EXPLAIN 을 돌리고,
+      인덱스 없이 테이블 전체를 읽는(tableScan) 쿼리가 있으면 실패한다.
+      → 엔티티의 @Table(indexes) 가 검색 조건과 어긋나면 여기서 바로 드러난다.
+
+    팀 이름 사전은 커밋된 팀만 알고 있으므로 데이터는 한 번만 커밋해 두고 검색은 트랜잭션 밖에서 실행한다. (테스트 전용 H2)
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plan;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.querydsl.repository.SqlCaptor"
+})
+class SearchQueryPlanTest {
+
+    private static final int TEAMS = 20;
+    private static final int MEMBERS = 2000;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberSearchQueryCompiler queryCompiler;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    TeamNameDictionary teamNameDictionary;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void init() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (em.createQuery("select count(m) from Member m", Long.class).getSingleResult() > 0) {
+                return;
+            }
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < TEAMS; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+            for (int i = 0; i < MEMBERS; i++) {
+                em.persist(new Member("member" + i, i % 100, teams.get(i % TEAMS)));
+            }
+        });
+        teamNameDictionary.reload();
+        SqlCaptor.drain();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filteredShapes")
+    @DisplayName("조건이 하나라도 있는 검색 쿼리는 인덱스를 탄다.")
+    void searchShapeUsesIndex(MemberSearchCondition condition) {
+        queryCompiler.fetchContent(condition, 0, 20);
+        queryCompiler.count(condition);
+
+        assertNoTableScan(SqlCaptor.drain());
+    }
+
+    @Test
+    @DisplayName("팀 이름을 조회하지 않으면 team 을 조인하지 않고 요청한 컬럼만 읽는다.")
+    void sparseFieldsSkipTeamJoin() {
+        MemberSearchCondition condition = new MemberSearchCondition("member42", "team2", null, null);
+        condition.setFields(EnumSet.of(MemberField.USERNAME, MemberField.TEAM_ID));
+
+        List<MemberTeamDto> result = queryCompiler.fetchContent(condition, 0, 20);
+        List<String> statements = SqlCaptor.drain();
+
+        assertThat(statements).noneMatch(sql -> sql.toLowerCase().matches("(?s).*\\bjoin\\b.*"));
+        assertNoTableScan(statements);
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getMemberId()).isNotNull();
+        assertThat(result.get(0).getUsername()).isEqualTo("member42");
+        assertThat(result.get(0).getTeamId()).isNotNull();
+        assertThat(result.get(0).getAge()).isNull();
+        assertThat(result.get(0).getTeamName()).isNull();
+    }
+
+    @Test
+    @DisplayName("팀 이름으로 팀을 찾는 쿼리는 인덱스를 탄다.")
+    void teamNameUsesIndex() {
+        teamRepository.findByName("team7");
+
+        assertNoTableScan(SqlCaptor.drain());
+    }
+
+    private void assertNoTableScan(List<String> statements) {
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertThat(plan)
+                    .as("full scan\n%s", plan)
+                    .doesNotContain(".tableScan");
+        }
+    }
+
+    /* H2 는 파라미터 값이 없어도 EXPLAIN 할 수 있다. */
+    private String explain(String sql) {
+        return jdbcTemplate.query(
+                con -> con.prepareStatement("EXPLAIN " + sql),
+                (ResultSetExtractor<String>) rs -> rs.next() ? rs.getString(1) : ""
+        );
+    }
+
+    /* username / teamName / ageGoe / ageLoe 조합 중 조건이 없는 경우(전체 조회)를 뺀 15가지 */
+    static List<MemberSearchCondition> filteredShapes() {
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        for (int shape = 1; shape < 16; shape++) {
+            conditions.add(new MemberSearchCondition(
+                    (shape & 1) != 0 ? "member42" : null,
+                    (shape & 2) != 0 ? "team7" : null,
+                    (shape & 4) != 0 ? 95 : null,
+                    (shape & 8) != 0 ? 97 : null
+            ));
+        }
+        return conditions;
+    }
+}
@@ -0,0 +1,28 @@
+package com.querydsl.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* 실행되는 SQL 을 그대로 모아두는 StatementInspector (hibernate.session_factory.statement_inspector 로 등록) */
+public class SqlCaptor implements StatementInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static List<String> drain() {
+        synchronized (statements) {
+            List<String> result = new ArrayList<>(statements);
+            statements.clear();
+            return result;
+        }
+    }
+}
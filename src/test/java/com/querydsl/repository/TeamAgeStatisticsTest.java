@@ -0,0 +1,180 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.MemberSearchCondition;
+import com.querydsl.dto.TeamAgeStatsDto;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.event.spi.EventSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* 통계는 커밋된 뒤에 반영되므로 트랜잭션 롤백 없이 실행하고 직접 정리한다. */
+@SpringBootTest
+class TeamAgeStatisticsTest {
+
+    @Autowired
+    TeamAgeStatistics teamAgeStatistics;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    EntityManager em;
+
+    List<Long> memberIds = new ArrayList<>();
+    List<Team> teams = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(memberIds);
+        teamRepository.deleteAllInBatch(teams);
+        teamAgeStatistics.rebuild();
+    }
+
+    @Test
+    @DisplayName("회원 저장 / 나이 변경 / 팀 변경 / 삭제가 커밋되면 통계에 바로 반영된다.")
+    void incrementalUpdate() {
+        Team statsTeamA = save(new Team("statsTeamA"));
+        Team statsTeamB = save(new Team("statsTeamB"));
+        Member member1 = save(new Member("stats1", 10, statsTeamA));
+        Member member2 = save(new Member("stats2", 30, statsTeamA));
+
+        assertStats(statsTeamA, 2, 10, 30, 40);
+
+        member1.setAge(20);
+        memberRepository.save(member1);
+        assertStats(statsTeamA, 2, 20, 30, 50);
+
+        member2.changeTeam(statsTeamB);
+        memberRepository.save(member2);
+        assertStats(statsTeamA, 1, 20, 20, 20);
+        assertStats(statsTeamB, 1, 30, 30, 30);
+
+        memberRepository.delete(member1);
+        assertThat(statsOf(statsTeamA)).isNull();
+    }
+
+    @Test
+    @DisplayName("다시 만들면 group by 결과와 같아진다.")
+    void rebuild() {
+        Team statsTeam = save(new Team("statsTeamRebuild"));
+        save(new Member("stats3", 15, statsTeam));
+        save(new Member("stats4", 25, statsTeam));
+
+        teamAgeStatistics.rebuild();
+
+        assertStats(statsTeam, 2, 15, 25, 40);
+        assertThat(statsOf(statsTeam).getTeamName()).isEqualTo("statsTeamRebuild");
+        assertThat(statsOf(statsTeam).getAvgAge()).isEqualTo(20.0);
+    }
+
+    @Test
+    @DisplayName("벌크 연산이 끝나면 전체를 다시 만들어서 반영한다.")
+    void bulkUpdate() {
+        Team statsTeam = save(new Team("statsTeamBulk"));
+        save(new Member("stats5", 10, statsTeam));
+
+        memberRepository.bulkUpdate(new MemberSearchCondition(null, "statsTeamBulk", null, null),
+                update -> update.set(member.age, member.age.add(1)));
+
+        assertStats(statsTeam, 1, 11, 11, 11);
+    }
+
+    /*
+        커밋은 끝났지만 통계에 반영하기 전에 다시 만들기가 시작되는 경우
+        : 다시 만든 결과에 이미 들어 있는 변경을 한 번 더 더하면 안 된다.
+     */
+    @Test
+    @DisplayName("커밋과 반영 사이에 다시 만들어도 변경을 두 번 세지 않는다.")
+    void rebuildBetweenCommitAndApply() throws Exception {
+        Team statsTeam = save(new Team("statsTeamInterleave"));
+        save(new Member("stats6", 10, statsTeam));
+
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                memberIds.add(memberRepository.save(new Member("stats7", 20, statsTeam)).getId());
+                /* 먼저 등록한 process 가 먼저 실행되므로 통계에 반영하기 직전에 멈춘다. */
+                em.unwrap(EventSource.class).getActionQueue().registerProcess(
+                        (AfterTransactionCompletionProcess) (success, session) -> {
+                            committed.countDown();
+                            await(release);
+                        });
+            }));
+            assertThat(committed.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<?> rebuild = executor.submit(teamAgeStatistics::rebuild);
+            Thread.sleep(200);
+            release.countDown();
+
+            writer.get(5, TimeUnit.SECONDS);
+            rebuild.get(15, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertStats(statsTeam, 2, 10, 20, 30);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void assertStats(Team team, long count, int min, int max, long sum) {
+        TeamAgeStatsDto stats = statsOf(team);
+        assertThat(stats).isNotNull();
+        assertThat(stats.getCount()).isEqualTo(count);
+        assertThat(stats.getMinAge()).isEqualTo(min);
+        assertThat(stats.getMaxAge()).isEqualTo(max);
+        assertThat(stats.getSumAge()).isEqualTo(sum);
+    }
+
+    private TeamAgeStatsDto statsOf(Team team) {
+        return teamAgeStatistics.stats().stream()
+                .filter(stats -> stats.getTeamId().equals(team.getId()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private Team save(Team team) {
+        teams.add(teamRepository.save(team));
+        return team;
+    }
+
+    private Member save(Member member) {
+        memberIds.add(memberRepository.save(member).getId());
+        return member;
+    }
+}
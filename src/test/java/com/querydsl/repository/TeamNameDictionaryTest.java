@@ -0,0 +1,119 @@
+package com.querydsl.repository;
+
+import com.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* 사전은 커밋된 뒤에 반영되므로 트랜잭션 롤백 없이 실행하고 직접 정리한다. */
+@SpringBootTest
+class TeamNameDictionaryTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TeamNameDictionary teamNameDictionary;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    List<Team> teams = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        teamNameDictionary.reload();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        teamRepository.deleteAllInBatch(teams);
+        teamNameDictionary.reload();
+    }
+
+    @Test
+    @DisplayName("커밋된 팀은 이름으로 id 를 찾을 수 있다.")
+    void resolveCommittedTeam() {
+        Team saved = save(new Team("dictionaryTeam"));
+
+        Optional<List<Long>> ids = teamNameDictionary.resolve("dictionaryTeam");
+
+        assertThat(ids).isPresent();
+        assertThat(ids.get()).contains(saved.getId());
+    }
+
+    @Test
+    @DisplayName("커밋되기 전에는 flush 된 팀도 다른 트랜잭션에 보이지 않고, 롤백되면 끝까지 보이지 않는다.")
+    void uncommittedTeamIsInvisible() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.persist(new Team("rolledBackTeam"));
+            em.flush();
+
+            assertThat(teamNameDictionary.resolve("rolledBackTeam")).isEmpty();
+            status.setRollbackOnly();
+        });
+
+        assertThat(teamNameDictionary.resolve("rolledBackTeam")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("팀 이름이 바뀌면 예전 이름으로는 더 이상 찾을 수 없다.")
+    void resolveRenamedTeam() {
+        Team saved = save(new Team("beforeRename"));
+
+        saved.setName("afterRename");
+        teamRepository.save(saved);
+
+        assertThat(teamNameDictionary.resolve("beforeRename")).isEmpty();
+        assertThat(teamNameDictionary.resolve("afterRename").orElseThrow()).contains(saved.getId());
+    }
+
+    @Test
+    @DisplayName("엔티티 이벤트 없이 바뀐 팀은 주기적으로 다시 읽을 때 반영한다.")
+    void reloadAfterExternalUpdate() {
+        Team saved = save(new Team("beforeExternal"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> queryFactory
+                .update(team)
+                .set(team.name, "afterExternal")
+                .where(team.id.eq(saved.getId()))
+                .execute());
+        teamNameDictionary.scheduledReload();
+
+        assertThat(teamNameDictionary.resolve("beforeExternal")).isEmpty();
+        assertThat(teamNameDictionary.resolve("afterExternal").orElseThrow()).contains(saved.getId());
+    }
+
+    @Test
+    @DisplayName("모르는 이름은 Optional.empty() 를 돌려준다.")
+    void resolveUnknownName() {
+        assertThat(teamNameDictionary.resolve("unknownTeam")).isEmpty();
+    }
+
+    private Team save(Team entity) {
+        Team saved = teamRepository.save(entity);
+        teams.add(saved);
+        return saved;
+    }
+}
@@ -0,0 +1,70 @@
+package com.querydsl.repository;
+
+import com.querydsl.dto.MemberDto;
+import com.querydsl.dto.TeamMembersDto;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import com.querydsl.metrics.MaxStatements;
+import com.querydsl.metrics.StatementCountExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@ExtendWith(StatementCountExtension.class)
+class TeamRepositoryCustomTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @BeforeEach
+    void init() {
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            for (int j = 0; j < 3; j++) {
+                em.persist(new Member("member" + i + "_" + j, i * 10 + j, team));
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @MaxStatements(3)
+    @DisplayName("팀을 페이징하고 소속 회원은 in 쿼리 한 번으로 채운다.")
+    void searchTeamsWithMembers() {
+        Page<TeamMembersDto> result = teamRepository.searchTeamsWithMembers(PageRequest.of(1, 2));
+
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getContent()).extracting(TeamMembersDto::getTeamName)
+                .containsExactly("team2", "team3");
+        assertThat(result.getContent().get(0).getMembers()).extracting(MemberDto::getUsername)
+                .containsExactly("member2_0", "member2_1", "member2_2");
+    }
+
+    @Test
+    @MaxStatements(2)
+    @DisplayName("마지막 페이지는 count 쿼리 없이 total 을 구한다.")
+    void lastPageWithoutCount() {
+        Page<TeamMembersDto> result = teamRepository.searchTeamsWithMembers(PageRequest.of(2, 2));
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getTotalElements()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,66 @@
+package com.querydsl.repository;
+
+import com.querydsl.entity.Team;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* 2차 캐시는 커밋된 데이터만 캐시하므로 트랜잭션 롤백 없이 실행하고 직접 정리한다. */
+@SpringBootTest
+class TeamRepositoryTest {
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        teamRepository.save(new Team("cachedTeam"));
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        teamRepository.deleteAll(teamRepository.findByName("cachedTeam"));
+    }
+
+    @Test
+    @DisplayName("같은 이름으로 다시 조회하면 쿼리 캐시에서 가져온다.")
+    void findByNameUsesQueryCache() {
+        List<Team> first = teamRepository.findByName("cachedTeam");
+        List<Team> second = teamRepository.findByName("cachedTeam");
+
+        assertThat(first).hasSize(1);
+        assertThat(second).extracting(Team::getId).containsExactly(first.get(0).getId());
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("id 로 조회하면 2차 캐시에서 가져온다.")
+    void findByIdUsesSecondLevelCache() {
+        Long id = teamRepository.findByName("cachedTeam").get(0).getId();
+        statistics.clear();
+
+        teamRepository.findById(id);
+        teamRepository.findById(id);
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}
@@ -0,0 +1,136 @@
+package com.querydsl.repository;
+
+import com.querydsl.entity.Member;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class UsernameTrigramIndexTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    UsernameTrigramIndex usernameTrigramIndex;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("저장된 회원은 flush 되면 바로 후보가 된다.")
+    void candidatesAfterFlush() {
+        Member member = new Member("trigramMember", 10);
+        em.persist(member);
+        em.flush();
+
+        assertThat(usernameTrigramIndex.candidates("gramMem").orElseThrow()).contains(member.getId());
+        assertThat(usernameTrigramIndex.candidates("TRIGRAM").orElseThrow()).contains(member.getId());
+    }
+
+    @Test
+    @DisplayName("이름이 바뀌면 새 이름으로도 찾을 수 있다.")
+    void candidatesAfterRename() {
+        Member member = new Member("beforeRename", 10);
+        em.persist(member);
+        em.flush();
+
+        member.setUsername("afterRename");
+        em.flush();
+
+        assertThat(usernameTrigramIndex.candidates("afterRen").orElseThrow()).contains(member.getId());
+    }
+
+    @Test
+    @DisplayName("3글자보다 짧은 검색어는 색인으로 좁히지 않는다.")
+    void shortTerm() {
+        assertThat(usernameTrigramIndex.candidates("ab")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Hibernate 를 거치지 않고 바뀐 이름은 reconcile 이후 후보가 된다.")
+    void reconcileExternalChange() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Long id = template.execute(status -> {
+            Member member = new Member("internalName", 10);
+            em.persist(member);
+            return member.getId();
+        });
+        try {
+            template.executeWithoutResult(status -> em
+                    .createNativeQuery("update member set username = 'externalName' where member_id = ?")
+                    .setParameter(1, id)
+                    .executeUpdate());
+            assertThat(usernameTrigramIndex.candidates("externalNa").orElseThrow()).doesNotContain(id);
+
+            /* 한 번에 reconcile-batch-size 명씩 읽으므로 그 회원의 범위까지 반복한다. */
+            for (int i = 0; i < 1000 && !usernameTrigramIndex.candidates("externalNa").orElseThrow().contains(id); i++) {
+                usernameTrigramIndex.reconcile();
+            }
+
+            assertThat(usernameTrigramIndex.candidates("externalNa").orElseThrow()).contains(id);
+        } finally {
+            deleteMember(template, id);
+        }
+    }
+
+    @Test
+    @DisplayName("이름 변경이 커밋되기 전에 다시 읽어도 커밋 이후 새 이름으로 찾을 수 있다.")
+    void reloadDuringPendingRename() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Long id = template.execute(status -> {
+            Member member = new Member("pendingBefore", 10);
+            em.persist(member);
+            return member.getId();
+        });
+        try {
+            template.executeWithoutResult(status -> {
+                em.find(Member.class, id).setUsername("pendingAfter");
+                em.flush();
+                /* 다른 커넥션으로 읽으므로 커밋된 예전 이름(pendingBefore)을 읽는다. */
+                usernameTrigramIndex.load();
+            });
+
+            assertThat(usernameTrigramIndex.candidates("pendingAfter").orElseThrow()).contains(id);
+        } finally {
+            deleteMember(template, id);
+        }
+    }
+
+    @Test
+    @DisplayName("대소문자와 악센트를 없애고 3-gram 을 만든다.")
+    void foldAccents() {
+        assertThat(UsernameTrigramIndex.grams("Renée")).contains("ene", "nee");
+        assertThat(UsernameTrigramIndex.indexable("RENÉE")).isTrue();
+        assertThat(UsernameTrigramIndex.indexable("회원A")).isTrue();
+    }
+
+    @Test
+    @DisplayName("collation 과 같게 비교한다고 볼 수 없는 글자가 있으면 색인으로 좁히지 않는다.")
+    void unsupportedCharacters() {
+        assertThat(UsernameTrigramIndex.indexable("straße")).isFalse();
+        assertThat(usernameTrigramIndex.candidates("member😀")).isEmpty();
+    }
+
+    private void deleteMember(TransactionTemplate template, Long id) {
+        template.executeWithoutResult(status -> em
+                .createNativeQuery("delete from member where member_id = ?")
+                .setParameter(1, id)
+                .executeUpdate());
+    }
+}
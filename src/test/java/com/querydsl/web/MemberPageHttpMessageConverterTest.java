@@ -0,0 +1,253 @@
+package com.querydsl.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.dto.EstimatedPage;
+import com.querydsl.dto.MemberDto;
+import com.querydsl.dto.MemberTeamDto;
+import com.querydsl.entity.Member;
+import com.querydsl.entity.Team;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberPageHttpMessageConverterTest {
+
+    private static final Type PAGE_TYPE = ResolvableType.forClassWithGenerics(Page.class, MemberTeamDto.class).getType();
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    @DisplayName("Slice<MemberTeamDto> 계열만, 전용 형식을 요청했을 때만 쓴다.")
+    void canWrite() {
+        MemberPageHttpMessageConverter converter = new MemberPageHttpMessageConverter(objectMapper);
+        Type sliceType = ResolvableType.forClassWithGenerics(Slice.class, MemberTeamDto.class).getType();
+        Type otherType = ResolvableType.forClassWithGenerics(Page.class, MemberDto.class).getType();
+
+        assertThat(converter.canWrite(PAGE_TYPE, PageImpl.class, MemberPageHttpMessageConverter.COMPACT_JSON)).isTrue();
+        assertThat(converter.canWrite(sliceType, PageImpl.class, MemberPageHttpMessageConverter.BINARY)).isTrue();
+        assertThat(converter.canWrite(PAGE_TYPE, PageImpl.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(otherType, PageImpl.class, MemberPageHttpMessageConverter.COMPACT_JSON)).isFalse();
+    }
+
+    @Test
+    @DisplayName("compact JSON 은 컬럼 이름을 한 번만 쓰고 행은 배열로 쓴다.")
+    void compactJson() throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        new MemberPageHttpMessageConverter(objectMapper)
+                .write(samplePage(), PAGE_TYPE, MemberPageHttpMessageConverter.COMPACT_JSON, message);
+
+        JsonNode root = objectMapper.readTree(message.getBodyAsBytes());
+        assertThat(root.get("columns")).hasSize(5);
+        assertThat(root.get("rows")).hasSize(2);
+        assertThat(root.get("rows").get(0).get(1).asText()).isEqualTo("member1");
+        assertThat(root.get("rows").get(1).get(3).isNull()).isTrue();
+        assertThat(root.get("totalElements").asLong()).isEqualTo(12);
+        assertThat(root.get("hasNext").asBoolean()).isTrue();
+    }
+
+    @Test
+    @DisplayName("count=ESTIMATED 의 total 이 하한값이면 totalExact=false / 하한값 flag 를 쓴다.")
+    void estimatedTotalLowerBound() throws Exception {
+        EstimatedPage<MemberTeamDto> page = new EstimatedPage<>(samplePage().getContent(), PageRequest.of(0, 2), 1000, false);
+        MemberPageHttpMessageConverter converter = new MemberPageHttpMessageConverter(objectMapper);
+
+        MockHttpOutputMessage json = new MockHttpOutputMessage();
+        converter.write(page, PAGE_TYPE, MemberPageHttpMessageConverter.COMPACT_JSON, json);
+        JsonNode root = objectMapper.readTree(json.getBodyAsBytes());
+        assertThat(root.get("totalElements").asLong()).isEqualTo(1000);
+        assertThat(root.get("totalExact").asBoolean()).isFalse();
+
+        MockHttpOutputMessage binary = new MockHttpOutputMessage();
+        converter.write(page, PAGE_TYPE, MemberPageHttpMessageConverter.BINARY, binary);
+        assertThat(binary.getBodyAsBytes()[3] & MemberPageHttpMessageConverter.FLAG_TOTAL_LOWER_BOUND).isNotZero();
+    }
+
+    @Test
+    @DisplayName("binary 는 길이 prefix 로 문자열을 쓰고 null 필드는 생략한다.")
+    void binary() throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        new MemberPageHttpMessageConverter(objectMapper)
+                .write(samplePage(), PAGE_TYPE, MemberPageHttpMessageConverter.BINARY, message);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message.getBodyAsBytes()));
+        assertThat(in.readByte()).isEqualTo((byte) 'M');
+        assertThat(in.readByte()).isEqualTo((byte) 'P');
+        assertThat(in.readByte()).isEqualTo(MemberPageHttpMessageConverter.BINARY_VERSION);
+        assertThat(in.readByte()).isEqualTo((byte) (MemberPageHttpMessageConverter.FLAG_HAS_NEXT | MemberPageHttpMessageConverter.FLAG_HAS_TOTAL));
+        assertThat(in.readInt()).isEqualTo(0);
+        assertThat(in.readInt()).isEqualTo(2);
+        assertThat(in.readLong()).isEqualTo(12);
+        assertThat(in.readInt()).isEqualTo(2);
+
+        assertThat(in.readByte()).isEqualTo((byte) 0);
+        assertThat(in.readLong()).isEqualTo(1L);
+        assertThat(readString(in)).isEqualTo("member1");
+        assertThat(in.readInt()).isEqualTo(10);
+        assertThat(in.readLong()).isEqualTo(1L);
+        assertThat(readString(in)).isEqualTo("팀A");
+
+        assertThat(in.readByte()).isEqualTo((byte) (8 | 16));
+        assertThat(in.readLong()).isEqualTo(2L);
+        assertThat(readString(in)).isEqualTo("member2😀");
+        assertThat(in.readInt()).isEqualTo(20);
+        assertThat(in.available()).isZero();
+    }
+
+    @Test
+    @DisplayName("teams=dictionary 면 팀은 한 번씩만 쓰고 row 에는 팀 index 만 쓴다.")
+    void teamDictionary() throws Exception {
+        Page<MemberTeamDto> page = new PageImpl<>(List.of(
+                new MemberTeamDto(1L, "member1", 10, 1L, "팀A"),
+                new MemberTeamDto(2L, "member2", 20, 2L, "팀B"),
+                new MemberTeamDto(3L, "member3", 30, 1L, "팀A"),
+                new MemberTeamDto(4L, "member4", 40, null, null)
+        ), PageRequest.of(0, 4), 4);
+        MediaType dictionaryJson = new MediaType(MemberPageHttpMessageConverter.COMPACT_JSON,
+                Map.of(MemberPageHttpMessageConverter.TEAMS_PARAMETER, MemberPageHttpMessageConverter.TEAMS_DICTIONARY));
+
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        new MemberPageHttpMessageConverter(objectMapper).write(page, PAGE_TYPE, dictionaryJson, message);
+
+        JsonNode root = objectMapper.readTree(message.getBodyAsBytes());
+        assertThat(root.get("teams")).hasSize(2);
+        assertThat(root.get("teams").get(1).get(1).asText()).isEqualTo("팀B");
+        assertThat(root.get("columns")).hasSize(4);
+        assertThat(root.get("rows").get(2).get(3).asInt()).isEqualTo(0);
+        assertThat(root.get("rows").get(3).get(3).isNull()).isTrue();
+    }
+
+    @Test
+    @DisplayName("fields 에서 teamId 를 빼도 teams=dictionary 는 teamName 으로 팀을 구분한다.")
+    void teamDictionaryWithoutTeamId() throws Exception {
+        Page<MemberTeamDto> page = new PageImpl<>(List.of(
+                new MemberTeamDto(1L, "member1", 10, null, "팀A"),
+                new MemberTeamDto(2L, "member2", 20, null, "팀B"),
+                new MemberTeamDto(3L, "member3", 30, null, "팀A")
+        ), PageRequest.of(0, 3), 3);
+        MediaType dictionaryJson = new MediaType(MemberPageHttpMessageConverter.COMPACT_JSON,
+                Map.of(MemberPageHttpMessageConverter.TEAMS_PARAMETER, MemberPageHttpMessageConverter.TEAMS_DICTIONARY));
+
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        new MemberPageHttpMessageConverter(objectMapper).write(page, PAGE_TYPE, dictionaryJson, message);
+
+        JsonNode root = objectMapper.readTree(message.getBodyAsBytes());
+        assertThat(root.get("teams")).hasSize(2);
+        assertThat(root.get("teams").get(0).get(0).isNull()).isTrue();
+        assertThat(root.get("teams").get(0).get(1).asText()).isEqualTo("팀A");
+        assertThat(root.get("rows").get(1).get(3).asInt()).isEqualTo(1);
+        assertThat(root.get("rows").get(2).get(3).asInt()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("binary 도 teams=dictionary 를 지원한다.")
+    void binaryTeamDictionary() throws Exception {
+        MediaType dictionaryBinary = new MediaType(MemberPageHttpMessageConverter.BINARY,
+                Map.of(MemberPageHttpMessageConverter.TEAMS_PARAMETER, MemberPageHttpMessageConverter.TEAMS_DICTIONARY));
+
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        new MemberPageHttpMessageConverter(objectMapper).write(samplePage(), PAGE_TYPE, dictionaryBinary, message);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message.getBodyAsBytes()));
+        in.skipBytes(3);
+        assertThat(in.readByte() & MemberPageHttpMessageConverter.FLAG_TEAM_DICTIONARY).isNotZero();
+        in.skipBytes(4 + 4 + 8);
+
+        assertThat(in.readInt()).isEqualTo(1);
+        assertThat(in.readByte()).isEqualTo((byte) 0);
+        assertThat(in.readLong()).isEqualTo(1L);
+        assertThat(readString(in)).isEqualTo("팀A");
+
+        assertThat(in.readInt()).isEqualTo(2);
+        assertThat(in.readByte()).isEqualTo((byte) 0);
+        assertThat(in.readLong()).isEqualTo(1L);
+        assertThat(readString(in)).isEqualTo("member1");
+        assertThat(in.readInt()).isEqualTo(10);
+        assertThat(in.readInt()).isEqualTo(0);
+
+        assertThat(in.readByte()).isEqualTo((byte) 8);
+        assertThat(in.readLong()).isEqualTo(2L);
+        assertThat(readString(in)).isEqualTo("member2😀");
+        assertThat(in.readInt()).isEqualTo(20);
+        assertThat(in.available()).isZero();
+    }
+
+    @Test
+    @DisplayName("Accept 로 형식을 고르고, 지정하지 않으면 기존 JSON 으로 응답한다.")
+    void contentNegotiation() throws Exception {
+        Team team = new Team("negotiationTeam");
+        em.persist(team);
+        em.persist(new Member("negotiationMember", 10, team));
+        em.flush();
+
+        MvcResult compact = mockMvc.perform(get("/v2/members").param("teamName", "negotiationTeam")
+                        .accept(MemberPageHttpMessageConverter.COMPACT_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(MediaType.parseMediaType(compact.getResponse().getContentType())
+                .isCompatibleWith(MemberPageHttpMessageConverter.COMPACT_JSON)).isTrue();
+        assertThat(objectMapper.readTree(compact.getResponse().getContentAsByteArray())
+                .get("rows").get(0).get(1).asText()).isEqualTo("negotiationMember");
+
+        MvcResult binary = mockMvc.perform(get("/v3/members").param("teamName", "negotiationTeam")
+                        .accept(MemberPageHttpMessageConverter.BINARY))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(binary.getResponse().getContentAsByteArray()[0]).isEqualTo((byte) 'M');
+
+        MvcResult json = mockMvc.perform(get("/v2/members").param("teamName", "negotiationTeam"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(MediaType.parseMediaType(json.getResponse().getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(objectMapper.readTree(json.getResponse().getContentAsByteArray()).has("content")).isTrue();
+    }
+
+    private static Page<MemberTeamDto> samplePage() {
+        return new PageImpl<>(List.of(
+                new MemberTeamDto(1L, "member1", 10, 1L, "팀A"),
+                new MemberTeamDto(2L, "member2😀", 20, null, null)
+        ), PageRequest.of(0, 2), 12);
+    }
+
+    private static String readString(DataInputStream in) throws Exception {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}